@@ -4,6 +4,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.6"
     id("jacoco")
     id("org.sonarqube") version "6.3.1.5724"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 sonar {
@@ -30,6 +31,8 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter")
     implementation("com.google.code.gson:gson:2.10.1")
     implementation("io.vavr:vavr:0.10.4")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    implementation("io.micrometer:micrometer-core")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.mockito:mockito-core:5.12.0")
@@ -46,7 +49,7 @@ tasks.withType<JacocoReport> {
 
 tasks.test {
     useJUnitPlatform {
-        excludeTags("integration")
+        excludeTags("integration", "load")
     }
 }
 
@@ -54,4 +57,56 @@ tasks.register<Test>("integrationTest") {
     useJUnitPlatform {
         includeTags("integration")
     }
-}
\ No newline at end of file
+}
+
+// Prices carts against the embedded pricing stub and prints throughput and latency percentiles.
+// Tune with load.* properties, e.g. ./gradlew loadTest -Pload.concurrency=64 -Pload.latency-ms=50
+tasks.register<Test>("loadTest") {
+    useJUnitPlatform {
+        includeTags("load")
+    }
+    testLogging.showStandardStreams = true
+    outputs.upToDateWhen { false }
+    providers.gradlePropertiesPrefixedBy("load.").get().forEach { (key, value) -> systemProperty(key, value) }
+}
+
+// Fixed forks and iterations so runs on different commits are comparable; each run's JSON
+// results are also kept under build/results/jmh/history, named after the commit.
+// Run a subset with: ./gradlew jmh -PjmhIncludes=CartTotals
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(2)
+    warmupIterations.set(3)
+    warmup.set("2s")
+    iterations.set(5)
+    timeOnIteration.set("2s")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+
+val gitCommit = providers.exec {
+    commandLine("git", "rev-parse", "--short", "HEAD")
+    isIgnoreExitValue = true
+}.standardOutput.asText.map { it.trim().ifEmpty { "unknown" } }
+
+val jmhArchive = tasks.register<Copy>("jmhArchive") {
+    description = "Keeps the latest JMH results, named after the current commit, for comparison across commits."
+    from(layout.buildDirectory.file("results/jmh/results.json"))
+    into(layout.buildDirectory.dir("results/jmh/history"))
+    rename { "${gitCommit.get()}.json" }
+}
+
+tasks.named("jmh") {
+    finalizedBy(jmhArchive)
+}
+
+tasks.register<JavaExec>("buildCatalogSnapshot") {
+    description = "Builds a binary product catalog snapshot from JSON pricing documents."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.siriusxm.example.cart.service.ProductCatalogSnapshotBuilder")
+    val snapshot = providers.gradleProperty("snapshot").orElse("build/catalog/products.bin")
+    val documents = providers.gradleProperty("documents")
+    argumentProviders.add(CommandLineArgumentProvider { listOf(snapshot.get(), documents.get()) })
+}
@@ -0,0 +1,65 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.model.Cart;
+import com.siriusxm.example.cart.model.CartItem;
+import com.siriusxm.example.cart.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a cart one {@link CartService#addItem} at a time, against adding the same lines in one batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CartBuildingBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    int lines;
+
+    /**
+     * Whether repeated products merge into one line; every product here is distinct, so this measures the lookup cost.
+     */
+    @Param({"false", "true"})
+    boolean merging;
+
+    private CartService cartService;
+    private List<CartItem> items;
+
+    @Setup
+    public void setUp() {
+        cartService = new CartService("0.125");
+        items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(new CartItem(new Product("product-" + i, 1.0 + (i % 100) / 100.0), 1 + i % 3));
+        }
+    }
+
+    private Cart emptyCart() {
+        return merging ? Cart.merging() : new Cart();
+    }
+
+    @Benchmark
+    public Cart addItemChain() {
+        Cart cart = emptyCart();
+        for (CartItem item : items) {
+            cart = cartService.addItem(cart, item);
+        }
+        return cart;
+    }
+
+    @Benchmark
+    public Cart addItems() {
+        return cartService.addItems(emptyCart(), items);
+    }
+}
@@ -0,0 +1,51 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.model.Cart;
+import com.siriusxm.example.cart.model.CartItem;
+import com.siriusxm.example.cart.model.CartTotals;
+import com.siriusxm.example.cart.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link CartService#calculateSubtotal} and {@link CartService#calculateTotals} on a built cart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CartTotalsBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    int lines;
+
+    private CartService cartService;
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        cartService = new CartService("0.125");
+        Cart.Builder builder = Cart.builder();
+        for (int i = 0; i < lines; i++) {
+            builder.add(new CartItem(new Product("product-" + i, 1.0 + (i % 100) / 100.0), 1 + i % 3));
+        }
+        cart = builder.build();
+    }
+
+    @Benchmark
+    public double calculateSubtotal() {
+        return cartService.calculateSubtotal(cart);
+    }
+
+    @Benchmark
+    public CartTotals calculateTotals() {
+        return cartService.calculateTotals(cart);
+    }
+}
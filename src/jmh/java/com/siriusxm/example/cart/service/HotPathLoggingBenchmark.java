@@ -0,0 +1,115 @@
+package com.siriusxm.example.cart.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Cart;
+import com.siriusxm.example.cart.model.CartItem;
+import com.siriusxm.example.cart.model.CartTotals;
+import com.siriusxm.example.cart.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging overhead on the pricing and totals hot paths, with log lines formatted and encoded
+ * by Logback into a discarding stream so disk speed does not enter into it.
+ * <p>
+ * {@code before} logs every success line and every failure with its whole payload, as the
+ * services used to at INFO; {@code after} is the hot-path mode, with success lines at DEBUG
+ * under INFO and failures sampled, rate-limited and truncated as {@code application.properties} configures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HotPathLoggingBenchmark {
+
+    @Param({"before", "after"})
+    String logging;
+
+    private OutputStreamAppender<ILoggingEvent> appender;
+    private CartService cartService;
+    private Cart cart;
+    private ProductPricingService pricingService;
+    private String unparseable;
+
+    @Setup
+    public void setUp() {
+        boolean before = switch (logging) {
+            case "before" -> true;
+            case "after" -> false;
+            default -> throw new IllegalArgumentException("Unknown logging mode: " + logging);
+        };
+        routeLogsNowhere(before ? Level.DEBUG : Level.INFO);
+
+        cartService = new CartService("0.125");
+        Cart.Builder builder = Cart.builder();
+        for (int i = 0; i < 10; i++) {
+            builder.add(new CartItem(new Product("product-" + i, 1.0 + i / 100.0), 1 + i % 3));
+        }
+        cart = builder.build();
+
+        pricingService = new ProductPricingService(HttpClient.newHttpClient(), "http://localhost/",
+                PricingOptions.builder()
+                        .logging(before ? PricingOptions.Logging.UNLIMITED : new PricingOptions.Logging(1, 10, 256))
+                        .build());
+        // a fuller product document that lost its price
+        unparseable = "{\"title\": \"Corn Flakes\", \"description\": \""
+                + "Toasted flakes of corn, a classic breakfast cereal with a light golden crunch. ".repeat(100)
+                + "\"}";
+    }
+
+    private void routeLogsNowhere(Level serviceLevel) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5level [%thread] %logger{36} : %msg%n");
+        encoder.start();
+        appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.addAppender(appender);
+        root.setLevel(Level.INFO);
+        context.getLogger(CartService.class).setLevel(serviceLevel);
+        context.getLogger(ProductPricingService.class).setLevel(serviceLevel);
+    }
+
+    @TearDown
+    public void tearDown() {
+        appender.stop();
+    }
+
+    @Benchmark
+    public CartTotals calculateTotals() {
+        return cartService.calculateTotals(cart);
+    }
+
+    @Benchmark
+    public Object parseFailure() {
+        try {
+            return pricingService.readProduct(unparseable);
+        } catch (ProductFetchException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.siriusxm.example.cart.service;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.siriusxm.example.cart.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a pricing document into a {@link Product}. {@code baselineGsonTree} is the
+ * original parse, a Gson tree built from the whole String, kept so the streaming parser can be
+ * compared against it; {@code streamingFromString} is {@link ProductPricingService#parseProduct}
+ * and {@code streamingFromBytes} the body path used by {@link ProductBodyHandler}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductParseBenchmark {
+
+    /**
+     * {@code minimal} is the shape the pricing host serves today; {@code catalog} is a fuller
+     * product document with the fields parsing has to skip.
+     */
+    @Param({"minimal", "catalog"})
+    String payload;
+
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        json = switch (payload) {
+            case "minimal" -> "{\"title\": \"Corn Flakes\", \"price\": 2.52}";
+            case "catalog" -> catalogDocument();
+            default -> throw new IllegalArgumentException("Unknown payload: " + payload);
+        };
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String catalogDocument() {
+        StringBuilder document = new StringBuilder()
+                .append("{\"id\": \"cornflakes\", \"sku\": \"CF-500G-UK\", \"brand\": \"Kellogg's\",")
+                .append("\"description\": \"")
+                .append("Toasted flakes of corn, a classic breakfast cereal with a light golden crunch. ".repeat(8))
+                .append("\",\"categories\": [\"breakfast\", \"cereal\", \"corn\", \"family\"],")
+                .append("\"nutrition\": {\"energyKj\": 1604, \"fat\": 0.9, \"saturates\": 0.2, \"carbohydrate\": 84,")
+                .append("\"sugars\": 8, \"fibre\": 3, \"protein\": 7, \"salt\": 1.13},")
+                .append("\"images\": [");
+        for (int i = 0; i < 6; i++) {
+            document.append(i == 0 ? "" : ",")
+                    .append("{\"url\": \"https://images.example.com/products/cornflakes/").append(i)
+                    .append(".jpg\", \"width\": 1200, \"height\": 1200, \"alt\": \"Corn Flakes box, view ")
+                    .append(i).append("\"}");
+        }
+        return document
+                .append("],\"title\": \"Corn Flakes\",\"price\": 2.52,\"currency\": \"GBP\",")
+                .append("\"availability\": {\"inStock\": true, \"quantity\": 1342, \"warehouses\": [\"LHR1\", \"MAN2\"]}}")
+                .toString();
+    }
+
+    @Benchmark
+    public Product baselineGsonTree() {
+        JsonObject jsonObject = JsonParser.parseString(json).getAsJsonObject();
+        return new Product(jsonObject.get("title").getAsString(), jsonObject.get("price").getAsDouble());
+    }
+
+    @Benchmark
+    public Product streamingFromString() {
+        return ProductPricingService.parseProduct(json);
+    }
+
+    @Benchmark
+    public Product streamingFromBytes() {
+        return ProductJsonParser.parse(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+    }
+}
@@ -1,11 +1,30 @@
 package com.siriusxm.example.cart.config;
 
+import com.siriusxm.example.cart.service.CachingProductPricingService;
+import com.siriusxm.example.cart.service.DiskPriceStore;
+import com.siriusxm.example.cart.service.NegativeResultCache;
+import com.siriusxm.example.cart.service.PricingOptions;
+import com.siriusxm.example.cart.service.PricingWarmup;
+import com.siriusxm.example.cart.service.ProductCatalogSnapshot;
+import com.siriusxm.example.cart.service.ProductPriceCache;
+import com.siriusxm.example.cart.service.ProductSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.http.HttpClient;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class CartConfiguration {
@@ -13,10 +32,219 @@ public class CartConfiguration {
     @Value("${cart.pricing.timeout-seconds:10}")
     private int timeoutSeconds;
 
+    @Value("${cart.pricing.max-in-flight:" + PricingOptions.DEFAULT_MAX_IN_FLIGHT + "}")
+    private int maxInFlight;
+
+    @Value("${cart.pricing.streaming-parse:false}")
+    private boolean streamingParse;
+
+    @Value("${cart.pricing.compression:false}")
+    private boolean compression;
+
+    @Value("${cart.pricing.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${cart.pricing.hedge.percentile:0}")
+    private double hedgePercentile;
+
+    @Value("${cart.pricing.hedge.min-delay-ms:50}")
+    private long hedgeMinDelayMs;
+
+    @Value("${cart.pricing.hedge.max-rate:0.05}")
+    private double hedgeMaxRate;
+
+    @Value("${cart.pricing.limit.enabled:false}")
+    private boolean limitEnabled;
+
+    @Value("${cart.pricing.limit.initial:20}")
+    private int limitInitial;
+
+    // unset (-1) means max-in-flight, capped at the initial limit
+    @Value("${cart.pricing.limit.min:-1}")
+    private int limitMin;
+
+    @Value("${cart.pricing.limit.max:200}")
+    private int limitMax;
+
+    @Value("${cart.pricing.limit.backoff-ratio:0.9}")
+    private double limitBackoffRatio;
+
+    @Value("${cart.pricing.limit.rtt-tolerance:2.0}")
+    private double limitRttTolerance;
+
+    @Value("${cart.pricing.breaker.enabled:false}")
+    private boolean breakerEnabled;
+
+    @Value("${cart.pricing.breaker.failure-threshold:5}")
+    private int breakerFailureThreshold;
+
+    @Value("${cart.pricing.breaker.open-seconds:30}")
+    private long breakerOpenSeconds;
+
+    @Value("${cart.pricing.breaker.half-open-trials:1}")
+    private int breakerHalfOpenTrials;
+
+    @Value("${cart.pricing.request-timeout-ms:10000}")
+    private long requestTimeoutMs;
+
+    @Value("${cart.pricing.retry.max-attempts:1}")
+    private int retryMaxAttempts;
+
+    @Value("${cart.pricing.retry.initial-backoff-ms:50}")
+    private long retryInitialBackoffMs;
+
+    @Value("${cart.pricing.retry.max-backoff-ms:1000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${cart.pricing.retry.budget-ratio:0.1}")
+    private double retryBudgetRatio;
+
+    @Value("${cart.pricing.log.sample-every:1}")
+    private int logSampleEvery;
+
+    @Value("${cart.pricing.log.max-per-second:0}")
+    private int logMaxPerSecond;
+
+    @Value("${cart.pricing.log.max-payload-chars:" + Integer.MAX_VALUE + "}")
+    private int logMaxPayloadChars;
+
+    @Value("${cart.pricing.cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    @Value("${cart.pricing.cache.max-entries:10000}")
+    private long cacheMaxEntries;
+
+    @Value("${cart.pricing.cache.refresh-ahead-seconds:0}")
+    private long cacheRefreshAheadSeconds;
+
+    @Value("${cart.pricing.cache.max-stale-seconds:0}")
+    private long cacheMaxStaleSeconds;
+
+    @Value("${cart.pricing.cache.fallback-ttl-seconds:0}")
+    private long cacheFallbackTtlSeconds;
+
+    @Value("${cart.pricing.cache.refresh-threads:" + CachingProductPricingService.DEFAULT_REFRESH_THREADS + "}")
+    private int cacheRefreshThreads;
+
+    @Value("${cart.pricing.cache.refresh-queue-size:" + CachingProductPricingService.DEFAULT_REFRESH_QUEUE_SIZE + "}")
+    private int cacheRefreshQueueSize;
+
+    @Value("${cart.pricing.negative-cache.client-error-ttl-seconds:0}")
+    private long negativeCacheClientErrorTtlSeconds;
+
+    @Value("${cart.pricing.negative-cache.server-error-ttl-seconds:0}")
+    private long negativeCacheServerErrorTtlSeconds;
+
+    @Value("${cart.pricing.negative-cache.max-entries:1000}")
+    private long negativeCacheMaxEntries;
+
+    @Value("${cart.pricing.disk-cache.enabled:false}")
+    private boolean diskCacheEnabled;
+
+    @Value("${cart.pricing.disk-cache.directory:${java.io.tmpdir}/shoppingcart-price-cache}")
+    private String diskCacheDirectory;
+
+    @Value("${cart.pricing.warmup.products:}")
+    private String warmupProducts;
+
+    @Value("${cart.pricing.warmup.file:}")
+    private String warmupFile;
+
+    @Value("${cart.pricing.warmup.budget-ms:5000}")
+    private long warmupBudgetMs;
+
     @Bean
     public HttpClient httpClient() {
-        return HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(timeoutSeconds))
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(timeoutSeconds));
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        return builder.build();
+    }
+
+    /**
+     * In-memory registry for when no monitoring backend provides one, so the services always have somewhere
+     * to record to.
+     */
+    @Bean
+    @ConditionalOnMissingBean(MeterRegistry.class)
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public PricingOptions pricingOptions() {
+        return PricingOptions.builder()
+                .maxInFlight(maxInFlight)
+                .streamingParse(streamingParse)
+                .compression(compression)
+                .virtualThreads(virtualThreads)
+                .hedging(new PricingOptions.Hedging(
+                        hedgePercentile, Duration.ofMillis(hedgeMinDelayMs), hedgeMaxRate))
+                .limiting(new PricingOptions.Limiting(
+                        limitEnabled, limitInitial, limitMin < 0 ? Math.min(maxInFlight, limitInitial) : limitMin,
+                        limitMax, limitBackoffRatio, limitRttTolerance))
+                .breaker(new PricingOptions.Breaker(
+                        breakerEnabled, breakerFailureThreshold, Duration.ofSeconds(breakerOpenSeconds),
+                        breakerHalfOpenTrials))
+                .requestTimeout(Duration.ofMillis(requestTimeoutMs))
+                .retrying(new PricingOptions.Retrying(
+                        retryMaxAttempts, Duration.ofMillis(retryInitialBackoffMs), Duration.ofMillis(retryMaxBackoffMs),
+                        retryBudgetRatio))
+                .logging(new PricingOptions.Logging(logSampleEvery, logMaxPerSecond, logMaxPayloadChars))
                 .build();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public ProductPriceCache productPriceCache() {
+        return new ProductPriceCache(
+                Duration.ofSeconds(cacheTtlSeconds),
+                cacheMaxEntries,
+                Duration.ofSeconds(cacheRefreshAheadSeconds),
+                Duration.ofSeconds(cacheMaxStaleSeconds),
+                Duration.ofSeconds(cacheFallbackTtlSeconds));
+    }
+
+    @Bean
+    public NegativeResultCache negativeResultCache() {
+        return new NegativeResultCache(
+                Duration.ofSeconds(negativeCacheClientErrorTtlSeconds),
+                Duration.ofSeconds(negativeCacheServerErrorTtlSeconds),
+                negativeCacheMaxEntries);
+    }
+
+    @Bean(destroyMethod = "close")
+    public DiskPriceStore diskPriceStore() {
+        return diskCacheEnabled ? DiskPriceStore.open(Path.of(diskCacheDirectory)) : DiskPriceStore.disabled();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService pricingRefreshExecutor() {
+        return CachingProductPricingService.boundedRefreshExecutor(cacheRefreshThreads, cacheRefreshQueueSize);
+    }
+
+    /**
+     * Offline catalog for batch repricing; inject it by type where HTTP pricing is not wanted.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cart.pricing.catalog.file")
+    public ProductCatalogSnapshot productCatalogSnapshot(@Value("${cart.pricing.catalog.file}") String file)
+            throws IOException {
+        return ProductCatalogSnapshot.open(Path.of(file));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cart.pricing.warmup.enabled", havingValue = "true")
+    public PricingWarmup pricingWarmup(ProductSource productSource) {
+        List<String> productNames = new ArrayList<>(List.of(warmupProducts.split(",")));
+        if (!warmupFile.isBlank()) {
+            try {
+                productNames.addAll(PricingWarmup.readProductNames(Path.of(warmupFile)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read warm-up product list " + warmupFile, e);
+            }
+        }
+        return new PricingWarmup(productSource, productNames, Duration.ofMillis(warmupBudgetMs), maxInFlight);
+    }
+}
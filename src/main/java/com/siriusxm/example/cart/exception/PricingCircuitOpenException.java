@@ -0,0 +1,11 @@
+package com.siriusxm.example.cart.exception;
+
+/**
+ * Thrown instead of sending a pricing request while the circuit breaker is open.
+ */
+public class PricingCircuitOpenException extends ProductFetchException {
+
+    public PricingCircuitOpenException(String message) {
+        super(message);
+    }
+}
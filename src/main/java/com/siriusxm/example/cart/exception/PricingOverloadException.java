@@ -0,0 +1,11 @@
+package com.siriusxm.example.cart.exception;
+
+/**
+ * Thrown instead of sending a pricing request when the outbound concurrency limit is reached.
+ */
+public class PricingOverloadException extends ProductFetchException {
+
+    public PricingOverloadException(String message) {
+        super(message);
+    }
+}
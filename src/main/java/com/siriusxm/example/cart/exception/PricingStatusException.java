@@ -0,0 +1,18 @@
+package com.siriusxm.example.cart.exception;
+
+/**
+ * Thrown when the pricing host answers with a status other than 200.
+ */
+public class PricingStatusException extends ProductFetchException {
+
+    private final int statusCode;
+
+    public PricingStatusException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
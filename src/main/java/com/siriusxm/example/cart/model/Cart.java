@@ -1,26 +1,285 @@
 package com.siriusxm.example.cart.model;
 
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Vector;
+import io.vavr.control.Option;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable shopping cart backed by a persistent vector.
+ * <p>
+ * Adding an item shares structure with the previous cart instead of copying
+ * every line, so building an N-line cart one item at a time costs O(N log N)
+ * rather than O(N²).
+ * <p>
+ * A cart created with {@link #merging()} keeps one line per product name:
+ * adding a product that is already present increases that line's quantity,
+ * and lines can be looked up, updated or removed by product name through a
+ * persistent hash index over the line positions. Removed lines leave an empty
+ * slot behind until enough accumulate to be worth compacting, which keeps
+ * removal effectively constant time while preserving insertion order.
+ * <p>
+ * Every cart also carries its running subtotal in micros (see {@link Money}),
+ * kept up to date by each add, update and remove, so totals can be computed
+ * without revisiting the lines.
+ */
+public final class Cart {
 
-public record Cart(List<CartItem> items) {
+    private static final int MIN_COMPACTION_SLOTS = 32;
+
+    private final Vector<CartItem> slots;
+    private final HashMap<String, Integer> index; // null when lines are not merged
+    private final int itemCount;
+    private final long subtotalMicros;
 
     public Cart() {
-        this(List.of());
+        this(Vector.empty(), null, 0, 0L);
+    }
+
+    public Cart(List<CartItem> items) {
+        this(Vector.ofAll(requireNoNulls(items)), null, items.size(), sumMicros(items));
+    }
+
+    private Cart(Vector<CartItem> slots, HashMap<String, Integer> index, int itemCount, long subtotalMicros) {
+        this.slots = slots;
+        this.index = index;
+        this.itemCount = itemCount;
+        this.subtotalMicros = subtotalMicros;
+    }
+
+    /**
+     * Returns an empty cart that merges quantities of the same product into a single line.
+     */
+    public static Cart merging() {
+        return new Cart(Vector.empty(), HashMap.empty(), 0, 0L);
+    }
+
+    /**
+     * Returns a new cart with {@code item} added, leaving this cart untouched.
+     * In a merging cart an existing line for the same product absorbs the quantity.
+     */
+    public Cart add(CartItem item) {
+        if (item == null) {
+            throw new IllegalArgumentException("CartItem cannot be null");
+        }
+        if (index == null) {
+            return new Cart(slots.append(item), null, itemCount + 1, plus(item));
+        }
+
+        String key = item.product().name();
+        Option<Integer> position = index.get(key);
+        if (position.isDefined()) {
+            return replace(position.get(), merge(slots.get(position.get()), item));
+        }
+        return new Cart(slots.append(item), index.put(key, slots.size()), itemCount + 1, plus(item));
+    }
+
+    /**
+     * Returns the line for {@code productName} in a merging cart.
+     */
+    public Option<CartItem> find(String productName) {
+        requireMerging();
+        return index.get(productName).map(slots::get);
     }
 
-    public Cart {
-        items = List.copyOf(items); // defensive copy, creates unmodifiable list
+    /**
+     * Returns a new merging cart with the quantity of {@code productName}'s line replaced.
+     */
+    public Cart updateQuantity(String productName, int quantity) {
+        requireMerging();
+        Option<Integer> position = index.get(productName);
+        if (position.isEmpty()) {
+            throw new IllegalArgumentException("Product not in cart: " + productName);
+        }
+
+        int slot = position.get();
+        return replace(slot, new CartItem(slots.get(slot).product(), quantity));
+    }
+
+    /**
+     * Returns a new merging cart without the line for {@code productName}.
+     */
+    public Cart remove(String productName) {
+        requireMerging();
+        Option<Integer> position = index.get(productName);
+        if (position.isEmpty()) {
+            return this;
+        }
+
+        int slot = position.get();
+        long remainingMicros = subtotalMicros - slots.get(slot).lineTotalMicros();
+        Vector<CartItem> remaining = slots.update(slot, null);
+        int remainingCount = itemCount - 1;
+        int emptySlots = remaining.size() - remainingCount;
+        if (emptySlots > MIN_COMPACTION_SLOTS && emptySlots > remainingCount) {
+            return indexed(remaining.filter(Objects::nonNull));
+        }
+        return new Cart(remaining, index.remove(productName), remainingCount, remainingMicros);
+    }
+
+    public static Builder builder() {
+        return new Builder(new Cart());
+    }
+
+    /**
+     * Returns a builder seeded with this cart's items, for appending a batch in one pass.
+     * The built cart merges lines if this cart does.
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    public boolean isMerging() {
+        return index != null;
     }
 
     public boolean isEmpty() {
-        return items.isEmpty();
+        return itemCount == 0;
     }
 
     public int getItemCount() {
-        return items.size();
+        return itemCount;
+    }
+
+    /**
+     * Sum of all line totals in micros, maintained incrementally.
+     */
+    public long getSubtotalMicros() {
+        return subtotalMicros;
     }
 
     public List<CartItem> getItems() {
-        return items; // already unmodifiable from constructor
+        if (itemCount == slots.size()) {
+            return slots.asJava(); // unmodifiable view, no copy
+        }
+        return slots.filter(Objects::nonNull).asJava();
+    }
+
+    public List<CartItem> items() {
+        return getItems();
+    }
+
+    private void requireMerging() {
+        if (index == null) {
+            throw new IllegalStateException("Cart does not merge lines by product");
+        }
+    }
+
+    private Cart replace(int slot, CartItem line) {
+        long micros = subtotalMicros - slots.get(slot).lineTotalMicros() + line.lineTotalMicros();
+        return new Cart(slots.update(slot, line), index, itemCount, micros);
+    }
+
+    private long plus(CartItem item) {
+        return Math.addExact(subtotalMicros, item.lineTotalMicros());
+    }
+
+    private static long sumMicros(Iterable<CartItem> items) {
+        long micros = 0L;
+        for (CartItem item : items) {
+            micros = Math.addExact(micros, item.lineTotalMicros());
+        }
+        return micros;
+    }
+
+    private static CartItem merge(CartItem existing, CartItem added) {
+        return new CartItem(added.product(), Math.addExact(existing.quantity(), added.quantity()));
+    }
+
+    private static Cart indexed(Iterable<CartItem> lines) {
+        Vector<CartItem> compacted = Vector.ofAll(lines);
+        Map<String, Integer> positions = new java.util.HashMap<>();
+        for (int i = 0; i < compacted.size(); i++) {
+            positions.put(compacted.get(i).product().name(), i);
+        }
+        return new Cart(compacted, HashMap.ofAll(positions), compacted.size(), sumMicros(compacted));
+    }
+
+    private static List<CartItem> requireNoNulls(List<CartItem> items) {
+        Objects.requireNonNull(items, "items");
+        for (CartItem item : items) {
+            Objects.requireNonNull(item, "item");
+        }
+        return items;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Cart other
+                && isMerging() == other.isMerging()
+                && getItems().equals(other.getItems());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Boolean.hashCode(isMerging()) + getItems().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Cart[items=" + getItems() + "]";
+    }
+
+    /**
+     * Mutable accumulator that is frozen into a {@link Cart} once.
+     * <p>
+     * Items are collected in a plain list and appended to the seed cart in a
+     * single pass on {@link #build()}, so loading a saved cart or importing an
+     * order does not create an intermediate {@code Cart} per line. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private final Cart base;
+        private final List<CartItem> pending = new ArrayList<>();
+
+        private Builder(Cart base) {
+            this.base = base;
+        }
+
+        public Builder add(CartItem item) {
+            if (item == null) {
+                throw new IllegalArgumentException("CartItem cannot be null");
+            }
+            pending.add(item);
+            return this;
+        }
+
+        public Builder addAll(Iterable<CartItem> items) {
+            if (items == null) {
+                throw new IllegalArgumentException("Items cannot be null");
+            }
+            for (CartItem item : items) {
+                add(item);
+            }
+            return this;
+        }
+
+        public Cart build() {
+            if (pending.isEmpty()) {
+                return base;
+            }
+            if (!base.isMerging()) {
+                return new Cart(base.slots.appendAll(pending), null, base.itemCount + pending.size(),
+                        Math.addExact(base.subtotalMicros, sumMicros(pending)));
+            }
+            return indexed(mergeLines(base.getItems(), pending));
+        }
+
+        private static Collection<CartItem> mergeLines(List<CartItem> existing, List<CartItem> added) {
+            Map<String, CartItem> lines = new LinkedHashMap<>();
+            for (CartItem item : existing) {
+                lines.put(item.product().name(), item);
+            }
+            for (CartItem item : added) {
+                lines.merge(item.product().name(), item, Cart::merge);
+            }
+            return lines.values();
+        }
     }
-}
\ No newline at end of file
+}
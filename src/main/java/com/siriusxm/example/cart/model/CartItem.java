@@ -9,4 +9,11 @@ public record CartItem(Product product, int quantity) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Line total (price times quantity) in micros.
+     */
+    public long lineTotalMicros() {
+        return Math.multiplyExact(product.priceMicros(), quantity);
+    }
+}
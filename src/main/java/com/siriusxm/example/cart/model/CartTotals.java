@@ -1,4 +1,12 @@
 package com.siriusxm.example.cart.model;
 
 public record CartTotals(double subtotal, double tax, double total) {
-}
\ No newline at end of file
+
+    public static CartTotals ofCents(long subtotalCents, long taxCents, long totalCents) {
+        return new CartTotals(
+                Money.centsToDouble(subtotalCents),
+                Money.centsToDouble(taxCents),
+                Money.centsToDouble(totalCents)
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package com.siriusxm.example.cart.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Fixed-point money arithmetic on {@code long} values.
+ * <p>
+ * Amounts are held in micros (millionths of a currency unit) while they are
+ * summed, so sub-cent catalogue prices stay exact, and in cents once rounded.
+ * Rates are held in parts per billion. Every rounding step is an exact
+ * ceiling on integers, with no intermediate {@code double} or
+ * {@code BigDecimal}, so the common path does not allocate.
+ */
+public final class Money {
+
+    public static final long MICROS_PER_UNIT = 1_000_000L;
+    public static final long MICROS_PER_CENT = 10_000L;
+    public static final long CENTS_PER_UNIT = 100L;
+    public static final int RATE_SCALE = 9;
+    public static final long RATE_ONE = 1_000_000_000L;
+
+    // beyond this a double no longer resolves whole micros
+    private static final double MAX_EXACT_AMOUNT = (double) (1L << 53) / MICROS_PER_UNIT;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a decimal amount to micros, rounding to the nearest micro.
+     */
+    public static long ofDouble(double amount) {
+        if (!(Math.abs(amount) <= MAX_EXACT_AMOUNT)) {
+            throw new ArithmeticException("Amount out of range: " + amount);
+        }
+        return Math.round(amount * MICROS_PER_UNIT);
+    }
+
+    public static double toDouble(long micros) {
+        return (double) micros / MICROS_PER_UNIT;
+    }
+
+    public static double centsToDouble(long cents) {
+        return (double) cents / CENTS_PER_UNIT;
+    }
+
+    /**
+     * Rounds an amount in micros up to whole cents.
+     */
+    public static long ceilToCents(long micros) {
+        return Math.ceilDiv(micros, MICROS_PER_CENT);
+    }
+
+    /**
+     * Converts a rate such as {@code 0.125} to parts per billion.
+     *
+     * @throws ArithmeticException if the rate has more than {@value #RATE_SCALE} decimal places
+     */
+    public static long rateOf(BigDecimal rate) {
+        return rate.movePointRight(RATE_SCALE).longValueExact();
+    }
+
+    /**
+     * Applies a rate to an amount in cents, rounding the result up to whole cents.
+     */
+    public static long applyRate(long cents, long ratePpb) {
+        return multiplyCeilDiv(cents, ratePpb, RATE_ONE);
+    }
+
+    /**
+     * Applies a rate to an amount in micros, rounding the result up to whole cents.
+     */
+    public static long applyRateToMicros(long micros, long ratePpb) {
+        return multiplyCeilDiv(micros, ratePpb, RATE_ONE * MICROS_PER_CENT);
+    }
+
+    /**
+     * Computes {@code ceil(a * b / divisor)} exactly for a positive divisor.
+     */
+    static long multiplyCeilDiv(long a, long b, long divisor) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return Math.ceilDiv(low, divisor);
+        }
+        // product exceeds 64 bits; only reachable for implausibly large carts
+        BigInteger[] qr = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+                .divideAndRemainder(BigInteger.valueOf(divisor));
+        BigInteger quotient = qr[1].signum() > 0 ? qr[0].add(BigInteger.ONE) : qr[0];
+        return quotient.longValueExact();
+    }
+}
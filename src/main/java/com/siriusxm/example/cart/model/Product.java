@@ -9,4 +9,11 @@ public record Product(String name, double price) {
             throw new IllegalArgumentException("Product price cannot be negative");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Price in micros, see {@link Money}.
+     */
+    public long priceMicros() {
+        return Money.ofDouble(price);
+    }
+}
@@ -0,0 +1,131 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.PricingOverloadException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many pricing requests are in flight, adapting the cap to how the pricing host responds.
+ * <p>
+ * AIMD: every response that comes back within {@code rttTolerance} times the baseline
+ * round-trip, while at least half the limit was in use, raises the limit by one. A failed
+ * exchange, an overload status or a response slower than that tolerance multiplies the limit
+ * by {@code backoffRatio}, at most once per round-trip: only exchanges started after the last
+ * backoff can trigger the next, so a burst of slow responses to requests that were already in
+ * flight together counts as one congestion signal. The baseline is the fastest round-trip in
+ * the previous window of {@value #RTT_WINDOW} responses, so it follows the host if its normal
+ * latency shifts.
+ * <p>
+ * A request arriving while the limit is in use is shed immediately with a
+ * {@link PricingOverloadException} rather than queued.
+ */
+class AdaptiveConcurrencyLimiter {
+
+    /**
+     * How an exchange ended, as far as the limit is concerned.
+     */
+    enum Outcome {
+        /** A response arrived; its round-trip decides whether the limit grows. */
+        SUCCESS,
+        /** The host failed or signalled overload. */
+        DROPPED,
+        /** Says nothing about the host, e.g. the caller gave up. */
+        IGNORED
+    }
+
+    static final int RTT_WINDOW = 250;
+
+    private final PricingOptions.Limiting settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder shed = new LongAdder();
+    private volatile int limit;
+
+    private long baselineRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private boolean backedOff;
+    private long lastBackoffNanos;
+
+    AdaptiveConcurrencyLimiter(PricingOptions.Limiting settings) {
+        this.settings = settings;
+        this.limit = settings.initialLimit();
+    }
+
+    /**
+     * Takes a slot for one exchange and returns its start time, to be passed back to {@link #release}.
+     *
+     * @throws PricingOverloadException if the limit is already in use
+     */
+    long acquire() {
+        if (!settings.enabled()) {
+            return 0L;
+        }
+
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                shed.increment();
+                throw new PricingOverloadException(
+                        "Pricing request rejected: " + current + " requests already in flight, limit " + limit);
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return System.nanoTime();
+    }
+
+    void release(long startNanos, Outcome outcome) {
+        if (!settings.enabled()) {
+            return;
+        }
+
+        int wasInFlight = inFlight.getAndDecrement();
+        if (outcome != Outcome.IGNORED) {
+            adjust(startNanos, System.nanoTime(), outcome == Outcome.DROPPED, wasInFlight);
+        }
+    }
+
+    private synchronized void adjust(long startNanos, long nowNanos, boolean dropped, int wasInFlight) {
+        long rttNanos = nowNanos - startNanos;
+        if (!dropped) {
+            windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+            if (++windowSamples == RTT_WINDOW) {
+                baselineRttNanos = windowMinRttNanos;
+                windowMinRttNanos = Long.MAX_VALUE;
+                windowSamples = 0;
+            }
+        }
+
+        boolean congested = dropped
+                || baselineRttNanos != Long.MAX_VALUE && rttNanos > baselineRttNanos * settings.rttTolerance();
+        if (congested) {
+            // an exchange sent before the last backoff saw congestion that backoff already answered
+            if (!backedOff || startNanos - lastBackoffNanos >= 0) {
+                limit = Math.max(settings.minLimit(), (int) (limit * settings.backoffRatio()));
+                backedOff = true;
+                lastBackoffNanos = nowNanos;
+            }
+        } else if (wasInFlight * 2 >= limit) {
+            limit = Math.min(settings.maxLimit(), limit + 1);
+        }
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    long shedCount() {
+        return shed.sum();
+    }
+
+    /**
+     * Round-trip the congestion check compares against, or {@link Long#MAX_VALUE} until the first window fills.
+     */
+    synchronized long baselineRttNanos() {
+        return baselineRttNanos;
+    }
+}
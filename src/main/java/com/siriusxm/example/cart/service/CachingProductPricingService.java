@@ -0,0 +1,311 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.PricingCircuitOpenException;
+import com.siriusxm.example.cart.exception.PricingStatusException;
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves product prices from {@link ProductPriceCache}, falling back to
+ * {@link ProductPricingService} on a miss. Only successful fetches are cached.
+ * <p>
+ * Concurrent misses for the same normalised name are coalesced: one caller
+ * fetches and every other caller waiting on that name shares its result, so a
+ * cold or just-expired popular product costs one request to the pricing host.
+ * <p>
+ * When the cache has refresh-ahead enabled, an entry that is close to or just
+ * past its TTL is served immediately while a background task re-fetches it.
+ * Refreshes run on a bounded executor; when it is saturated the refresh is
+ * skipped and the entry keeps being served until its maximum staleness.
+ * <p>
+ * While the pricing circuit is open, a product that is no longer cached is served
+ * from the cache's last known good prices if it has one.
+ * <p>
+ * Error statuses are remembered in a {@link NegativeResultCache}, so a name the pricing
+ * host does not know fails without a request until that failure expires.
+ */
+@Service
+@Primary
+public class CachingProductPricingService implements ProductSource {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingProductPricingService.class);
+    public static final int DEFAULT_REFRESH_THREADS = 2;
+    public static final int DEFAULT_REFRESH_QUEUE_SIZE = 64;
+
+    private final ProductPricingService delegate;
+    private final ProductPriceCache cache;
+    private final NegativeResultCache negativeCache;
+    private final Executor refreshExecutor;
+    private final SingleFlight<String, Try<Product>> flights = new SingleFlight<>(interrupted -> Try.failure(
+            new ProductFetchException("Interrupted while waiting for a fetch of the same product", interrupted)));
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder rejectedRefreshes = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public CachingProductPricingService(ProductPricingService delegate, ProductPriceCache cache) {
+        this(delegate, cache, boundedRefreshExecutor(DEFAULT_REFRESH_THREADS, DEFAULT_REFRESH_QUEUE_SIZE));
+    }
+
+    public CachingProductPricingService(
+            ProductPricingService delegate, ProductPriceCache cache, Executor refreshExecutor) {
+        this(delegate, cache, NegativeResultCache.disabled(), refreshExecutor);
+    }
+
+    @Autowired
+    public CachingProductPricingService(
+            ProductPricingService delegate,
+            ProductPriceCache cache,
+            NegativeResultCache negativeCache,
+            @Qualifier("pricingRefreshExecutor") Executor refreshExecutor) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("ProductPricingService cannot be null");
+        }
+        if (cache == null) {
+            throw new IllegalArgumentException("ProductPriceCache cannot be null");
+        }
+        if (negativeCache == null) {
+            throw new IllegalArgumentException("NegativeResultCache cannot be null");
+        }
+        if (refreshExecutor == null) {
+            throw new IllegalArgumentException("Refresh executor cannot be null");
+        }
+
+        this.delegate = delegate;
+        this.cache = cache;
+        this.negativeCache = negativeCache;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Creates a fixed-size pool with a bounded queue that rejects work rather than queueing it
+     * without limit, so a burst of stale entries cannot start an unbounded refresh storm.
+     */
+    public static ExecutorService boundedRefreshExecutor(int threads, int queueSize) {
+        if (threads <= 0 || queueSize <= 0) {
+            throw new IllegalArgumentException("Refresh threads and queue size must be positive");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pricing-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public Try<Product> fetchProduct(String productName) {
+        if (productName == null || productName.isBlank()) {
+            return Try.failure(new ProductFetchException("Product name cannot be null or blank"));
+        }
+
+        String key = ProductPricingService.normalizeName(productName);
+        PricingFetchEvent event = PricingFetchEvent.start();
+        Option<ProductPriceCache.Entry> cached = cache.lookup(key);
+        if (cached.isDefined()) {
+            log.debug("Cache hit for product: {}", key);
+            return Try.success(serve(key, productName, cached.get(), event));
+        }
+        Option<PricingStatusException> knownFailure = negativeCache.get(key);
+        if (knownFailure.isDefined()) {
+            log.debug("Negative cache hit for product: {}", key);
+            event.served(productName, PricingFetchEvent.NEGATIVE);
+            return Try.failure(knownFailure.get());
+        }
+        return flights.execute(key, () -> withFallback(key, remember(key, delegate.fetchProduct(productName))));
+    }
+
+    @Override
+    public Map<String, Try<Product>> fetchProducts(Collection<String> productNames) {
+        if (productNames == null) {
+            throw new IllegalArgumentException("Product names cannot be null");
+        }
+
+        Map<String, Try<Product>> results = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String productName : new LinkedHashSet<>(productNames)) {
+            if (productName == null || productName.isBlank()) {
+                results.put(productName, null);
+                misses.add(productName);
+                continue;
+            }
+            String key = ProductPricingService.normalizeName(productName);
+            PricingFetchEvent event = PricingFetchEvent.start();
+            Option<ProductPriceCache.Entry> cached = cache.lookup(key);
+            if (cached.isDefined()) {
+                results.put(productName, Try.success(serve(key, productName, cached.get(), event)));
+                continue;
+            }
+            Option<PricingStatusException> knownFailure = negativeCache.get(key);
+            results.put(productName, knownFailure.isDefined() ? Try.failure(knownFailure.get()) : null);
+            if (knownFailure.isEmpty()) {
+                misses.add(productName);
+            } else {
+                event.served(productName, PricingFetchEvent.NEGATIVE);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            fetchMisses(misses).forEach(results::put);
+        }
+        return Collections.unmodifiableMap(results);
+    }
+
+    private Product serve(String key, String productName, ProductPriceCache.Entry entry, PricingFetchEvent event) {
+        boolean refreshDue = cache.isRefreshDue(entry);
+        if (refreshDue) {
+            scheduleRefresh(key, productName, entry);
+        }
+        event.served(productName, refreshDue ? PricingFetchEvent.STALE : PricingFetchEvent.HIT);
+        return entry.product();
+    }
+
+    private void scheduleRefresh(String key, String productName, ProductPriceCache.Entry entry) {
+        SingleFlight.Flight<Try<Product>> flight = flights.join(key);
+        if (!flight.leader()) {
+            return; // already being fetched
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                Try<Product> result = Try.failure(new ProductFetchException("Refresh did not complete: " + productName));
+                try {
+                    result = remember(key, delegate.fetchProduct(productName));
+                } finally {
+                    flights.complete(key, flight, result);
+                }
+            });
+            refreshes.increment();
+            log.debug("Scheduled background refresh for product: {}", key);
+        } catch (RejectedExecutionException e) {
+            rejectedRefreshes.increment();
+            flights.complete(key, flight, Try.success(entry.product()));
+            log.debug("Refresh executor saturated, serving stale product: {}", key);
+        }
+    }
+
+    private Map<String, Try<Product>> fetchMisses(List<String> misses) {
+        Map<String, SingleFlight.Flight<Try<Product>>> flightsByName = new LinkedHashMap<>();
+        List<String> toFetch = new ArrayList<>();
+        for (String productName : misses) {
+            if (productName == null || productName.isBlank()) {
+                toFetch.add(productName);
+                continue;
+            }
+            SingleFlight.Flight<Try<Product>> flight = flights.join(ProductPricingService.normalizeName(productName));
+            flightsByName.put(productName, flight);
+            if (flight.leader()) {
+                toFetch.add(productName);
+            }
+        }
+
+        Map<String, Try<Product>> results = new LinkedHashMap<>();
+        try {
+            Map<String, Try<Product>> fetched;
+            try {
+                fetched = toFetch.isEmpty() ? Collections.emptyMap() : delegate.fetchProducts(toFetch);
+            } catch (RuntimeException e) {
+                fetched = Collections.emptyMap();
+                log.error("Batch product fetch failed", e);
+            }
+
+            for (String productName : toFetch) {
+                Try<Product> result = fetched.getOrDefault(productName,
+                        Try.failure(new ProductFetchException("No result for product: " + productName)));
+                SingleFlight.Flight<Try<Product>> flight = flightsByName.get(productName);
+                if (flight != null) {
+                    String key = ProductPricingService.normalizeName(productName);
+                    result = withFallback(key, remember(key, result));
+                    flights.complete(key, flight, result);
+                }
+                results.put(productName, result);
+            }
+        } catch (Throwable t) { // an Error or an InterruptedException rethrown by vavr's Try
+            // release every key we lead, or later callers for them would wait forever
+            flightsByName.forEach((productName, flight) -> {
+                if (flight.leader()) {
+                    flights.fail(ProductPricingService.normalizeName(productName), flight, t);
+                }
+            });
+            throw t;
+        }
+        // only wait on other callers' fetches once ours are published, in case they are ours too
+        flightsByName.forEach((productName, flight) -> {
+            if (!flight.leader()) {
+                results.put(productName, flights.await(flight.result()));
+            }
+        });
+        return results;
+    }
+
+    private Try<Product> remember(String key, Try<Product> result) {
+        return result
+                .onSuccess(product -> cache.put(key, product))
+                .onFailure(failure -> negativeCache.put(key, failure));
+    }
+
+    private Try<Product> withFallback(String key, Try<Product> result) {
+        if (result.isSuccess() || !(result.getCause() instanceof PricingCircuitOpenException)) {
+            return result;
+        }
+        Option<Product> fallback = cache.lastKnownGood(key);
+        if (fallback.isEmpty()) {
+            return result;
+        }
+        fallbacks.increment();
+        log.debug("Pricing circuit open, serving last known good product: {}", key);
+        return Try.success(fallback.get());
+    }
+
+    public ProductPriceCache getCache() {
+        return cache;
+    }
+
+    public NegativeResultCache getNegativeCache() {
+        return negativeCache;
+    }
+
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    public long getRejectedRefreshCount() {
+        return rejectedRefreshes.sum();
+    }
+
+    /**
+     * Number of fetches answered with a last known good price because the pricing circuit was open.
+     */
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+}
@@ -0,0 +1,147 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Cart;
+import com.siriusxm.example.cart.model.CartItem;
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Try;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Prices a whole order: fetches every product it names and adds the priced lines to a cart.
+ * <p>
+ * With {@code cart.pricing.virtual-threads} enabled each product is fetched on its own
+ * virtual thread, at most {@code cart.pricing.max-in-flight} at a time. The fetches are
+ * scoped to the call: the first failure cancels the rest, and so does interrupting the
+ * caller when the cart request is abandoned, and no fetch outlives the call. Otherwise the
+ * order is priced with the source's batch {@link ProductSource#fetchProducts}.
+ */
+@Service
+public class CartPricingService {
+
+    private static final Logger log = LoggerFactory.getLogger(CartPricingService.class);
+
+    private final ProductSource productSource;
+    private final CartService cartService;
+    private final PricingOptions options;
+
+    public CartPricingService(ProductSource productSource, CartService cartService, PricingOptions options) {
+        if (productSource == null) {
+            throw new IllegalArgumentException("ProductSource cannot be null");
+        }
+        if (cartService == null) {
+            throw new IllegalArgumentException("CartService cannot be null");
+        }
+        if (options == null) {
+            throw new IllegalArgumentException("PricingOptions cannot be null");
+        }
+
+        this.productSource = productSource;
+        this.cartService = cartService;
+        this.options = options;
+    }
+
+    /**
+     * Returns {@code cart} with one line per entry of {@code quantities}, in iteration order,
+     * or the first failure if any product could not be priced.
+     */
+    public Try<Cart> priceCart(Cart cart, Map<String, Integer> quantities) {
+        if (cart == null) {
+            throw new IllegalArgumentException("Cart cannot be null");
+        }
+        if (quantities == null) {
+            throw new IllegalArgumentException("Quantities cannot be null");
+        }
+        if (quantities.isEmpty()) {
+            return Try.success(cart);
+        }
+
+        List<String> productNames = new ArrayList<>(quantities.keySet());
+        Try<Map<String, Product>> products = options.virtualThreads()
+                ? fetchOnVirtualThreads(productNames)
+                : fetchBatch(productNames);
+
+        return products.map(byName -> {
+            List<CartItem> items = new ArrayList<>(quantities.size());
+            quantities.forEach((productName, quantity) ->
+                    items.add(new CartItem(byName.get(productName), quantity)));
+            return cartService.addItems(cart, items);
+        });
+    }
+
+    private Try<Map<String, Product>> fetchBatch(List<String> productNames) {
+        Map<String, Product> products = new LinkedHashMap<>();
+        for (Map.Entry<String, Try<Product>> result : productSource.fetchProducts(productNames).entrySet()) {
+            if (result.getValue().isFailure()) {
+                return Try.failure(result.getValue().getCause());
+            }
+            products.put(result.getKey(), result.getValue().get());
+        }
+        return Try.success(products);
+    }
+
+    private Try<Map<String, Product>> fetchOnVirtualThreads(List<String> productNames) {
+        Semaphore permits = new Semaphore(options.maxInFlight());
+        Map<Future<Try<Product>>, String> pending = new LinkedHashMap<>();
+
+        // closing the executor waits for every thread, so cancelled fetches finish before we return
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<Try<Product>> completion = new ExecutorCompletionService<>(scope);
+            for (String productName : productNames) {
+                pending.put(completion.submit(() -> fetchWithPermit(productName, permits)), productName);
+            }
+
+            Map<String, Product> products = new LinkedHashMap<>();
+            try {
+                for (int i = 0; i < productNames.size(); i++) {
+                    Future<Try<Product>> done = completion.take();
+                    Try<Product> result = done.get();
+                    if (result.isFailure()) {
+                        cancelAll(pending);
+                        return Try.failure(result.getCause());
+                    }
+                    products.put(pending.get(done), result.get());
+                }
+            } catch (ExecutionException e) {
+                cancelAll(pending);
+                return Try.failure(e.getCause());
+            } catch (InterruptedException e) {
+                cancelAll(pending);
+                Thread.currentThread().interrupt();
+                log.debug("Cart pricing abandoned with {} products outstanding", productNames.size() - products.size());
+                return Try.failure(new ProductFetchException("Cart pricing was interrupted", e));
+            }
+
+            Map<String, Product> ordered = new LinkedHashMap<>();
+            productNames.forEach(productName -> ordered.put(productName, products.get(productName)));
+            return Try.success(ordered);
+        }
+    }
+
+    private Try<Product> fetchWithPermit(String productName, Semaphore permits) throws InterruptedException {
+        permits.acquire();
+        try {
+            return productSource.fetchProduct(productName);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static void cancelAll(Map<Future<Try<Product>>, String> pending) {
+        pending.keySet().forEach(future -> future.cancel(true));
+    }
+}
@@ -3,24 +3,42 @@ package com.siriusxm.example.cart.service;
 import com.siriusxm.example.cart.model.Cart;
 import com.siriusxm.example.cart.model.CartItem;
 import com.siriusxm.example.cart.model.CartTotals;
+import com.siriusxm.example.cart.model.Money;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
 
 @Service
 public class CartService {
 
     private static final Logger log = LoggerFactory.getLogger(CartService.class);
+    private static final EventType TOTALS_EVENT = EventType.getEventType(CartTotalsEvent.class);
 
     private final BigDecimal taxRate;
+    private final long taxRatePpb;
+    private final Timer totalsTimer;
+    private final DistributionSummary cartSize;
+
+    public CartService(String taxRateStr) {
+        this(taxRateStr, Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public CartService(@Value("${cart.tax.rate}") String taxRateStr, MeterRegistry meterRegistry) {
+        if (meterRegistry == null) {
+            throw new IllegalArgumentException("MeterRegistry cannot be null");
+        }
 
-    public CartService(@Value("${cart.tax.rate}") String taxRateStr) {
         BigDecimal rate;
         try {
             rate = new BigDecimal(taxRateStr);
@@ -32,7 +50,20 @@ public class CartService {
             throw new IllegalArgumentException("Tax rate must be between 0 and 1");
         }
 
+        try {
+            this.taxRatePpb = Money.rateOf(rate);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Tax rate must have at most " + Money.RATE_SCALE + " decimal places", e);
+        }
         this.taxRate = rate;
+        this.totalsTimer = Timer.builder("cart.totals")
+                .description("Time to calculate a cart's totals")
+                .register(meterRegistry);
+        this.cartSize = DistributionSummary.builder("cart.size")
+                .description("Lines in a cart when its totals are calculated")
+                .baseUnit("lines")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
         log.info("CartService initialized with tax rate: {}", taxRate);
     }
 
@@ -46,27 +77,69 @@ public class CartService {
             throw new IllegalArgumentException("CartItem cannot be null");
         }
 
-        List<CartItem> newItems = new ArrayList<>(cart.getItems());
-        newItems.add(item);
+        Cart updated = cart.add(item);
         log.debug("Added item {} with quantity {} to cart", item.product().name(), item.quantity());
-        return new Cart(newItems);
+        return updated;
+    }
+
+    public Cart addItems(Cart cart, Collection<CartItem> items) {
+        if (cart == null) {
+            log.error("Attempted to add items to null cart");
+            throw new IllegalArgumentException("Cart cannot be null");
+        }
+        if (items == null) {
+            log.error("Attempted to add null item collection to cart");
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+
+        Cart updated = cart.toBuilder()
+                .addAll(items)
+                .build();
+        log.debug("Added {} items to cart", items.size());
+        return updated;
+    }
+
+    public Cart updateQuantity(Cart cart, String productName, int quantity) {
+        if (cart == null) {
+            throw new IllegalArgumentException("Cart cannot be null");
+        }
+        if (productName == null || productName.isBlank()) {
+            throw new IllegalArgumentException("Product name cannot be null or blank");
+        }
+
+        Cart updated = cart.updateQuantity(productName, quantity);
+        log.debug("Updated quantity of {} to {}", productName, quantity);
+        return updated;
+    }
+
+    public Cart removeItem(Cart cart, String productName) {
+        if (cart == null) {
+            throw new IllegalArgumentException("Cart cannot be null");
+        }
+        if (productName == null || productName.isBlank()) {
+            throw new IllegalArgumentException("Product name cannot be null or blank");
+        }
+
+        Cart updated = cart.remove(productName);
+        log.debug("Removed {} from cart", productName);
+        return updated;
     }
 
     public double calculateItemTotal(CartItem item) {
         if (item == null) {
             throw new IllegalArgumentException("CartItem cannot be null");
         }
-        return item.product().price() * item.quantity();
+        return Money.toDouble(item.lineTotalMicros());
     }
 
     public double calculateSubtotal(Cart cart) {
         if (cart == null) {
             throw new IllegalArgumentException("Cart cannot be null");
         }
-        double subtotal = cart.getItems().stream()
-                .mapToDouble(this::calculateItemTotal)
-                .sum();
-        log.debug("Calculated subtotal: {} for {} items", subtotal, cart.getItemCount());
+        double subtotal = Money.toDouble(cart.getSubtotalMicros());
+        if (log.isDebugEnabled()) {
+            log.debug("Calculated subtotal: {} for {} items", subtotal, cart.getItemCount());
+        }
         return subtotal;
     }
 
@@ -75,37 +148,38 @@ public class CartService {
             throw new IllegalArgumentException("Cart cannot be null");
         }
 
-        double subtotal = calculateSubtotal(cart);
-
-        BigDecimal subtotalBd = BigDecimal.valueOf(subtotal)
-                .setScale(2, RoundingMode.CEILING);
-
-        BigDecimal taxBd = subtotalBd.multiply(taxRate)
-                .setScale(2, RoundingMode.CEILING);
-
-        BigDecimal totalBd = subtotalBd.add(taxBd)
-                .setScale(2, RoundingMode.CEILING);
-
-        CartTotals totals = new CartTotals(
-                subtotalBd.doubleValue(),
-                taxBd.doubleValue(),
-                totalBd.doubleValue()
-        );
+        // no event is allocated unless a recording has it enabled
+        CartTotalsEvent event = TOTALS_EVENT.isEnabled() ? CartTotalsEvent.start() : null;
+        CartTotals totals = totalsTimer.record(() -> totalsOf(cart));
+        cartSize.record(cart.getItemCount());
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.itemCount = cart.getItemCount();
+                event.commit();
+            }
+        }
 
-        log.info("Calculated cart totals - Subtotal: {}, Tax: {}, Total: {}",
-                totals.subtotal(), totals.tax(), totals.total());
+        if (log.isDebugEnabled()) {
+            log.debug("Calculated cart totals - Subtotal: {}, Tax: {}, Total: {}",
+                    totals.subtotal(), totals.tax(), totals.total());
+        }
 
         return totals;
     }
 
+    private CartTotals totalsOf(Cart cart) {
+        // running subtotal is exact, so no need to revisit the lines
+        long subtotalCents = Money.ceilToCents(cart.getSubtotalMicros());
+        long taxCents = Money.applyRate(subtotalCents, taxRatePpb);
+        return CartTotals.ofCents(subtotalCents, taxCents, Math.addExact(subtotalCents, taxCents));
+    }
+
     public double calculateTax(double subtotal) {
         if (subtotal < 0) {
             throw new IllegalArgumentException("Subtotal cannot be negative");
         }
-        return BigDecimal.valueOf(subtotal)
-                .multiply(taxRate)
-                .setScale(2, RoundingMode.CEILING)
-                .doubleValue();
+        return Money.centsToDouble(Money.applyRateToMicros(Money.ofDouble(subtotal), taxRatePpb));
     }
 
     public double getTaxRate() {
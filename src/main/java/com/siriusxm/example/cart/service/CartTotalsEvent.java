@@ -0,0 +1,31 @@
+package com.siriusxm.example.cart.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one {@link CartService#calculateTotals} call.
+ */
+@Name(CartTotalsEvent.NAME)
+@Label("Cart Totals")
+@Category({"Shopping Cart", "Totals"})
+@Description("Subtotal, tax and total calculated for a cart")
+@StackTrace(false)
+final class CartTotalsEvent extends Event {
+
+    static final String NAME = "com.siriusxm.cart.CartTotals";
+
+    @Label("Item Count")
+    @Description("Lines in the cart")
+    int itemCount;
+
+    static CartTotalsEvent start() {
+        CartTotalsEvent event = new CartTotalsEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,146 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.PricingCircuitOpenException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling the pricing host once it keeps failing, so callers fail fast instead of
+ * each waiting out a connect timeout.
+ * <p>
+ * Closed: every request goes through, and {@code failureThreshold} consecutive failures
+ * open the circuit. Open: requests are rejected with a {@link PricingCircuitOpenException}
+ * without touching the network until {@code openDuration} has passed. Half-open: up to
+ * {@code halfOpenTrials} requests go through as a trial; a success closes the circuit and
+ * a failure opens it again for another {@code openDuration}.
+ * <p>
+ * Every permission granted by {@link #acquirePermission()} must be settled with exactly one
+ * of {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}. The closed state
+ * takes no lock.
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final PricingOptions.Breaker settings;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile State state = State.CLOSED;
+    private long openedAtNanos;
+    private int trialsInFlight;
+
+    CircuitBreaker(PricingOptions.Breaker settings) {
+        this(settings, System::nanoTime);
+    }
+
+    CircuitBreaker(PricingOptions.Breaker settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @throws PricingCircuitOpenException if the circuit is open, or half-open with every trial slot taken
+     */
+    void acquirePermission() {
+        if (!settings.enabled() || state == State.CLOSED) {
+            return;
+        }
+
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAtNanos < settings.openDuration().toNanos()) {
+                    throw reject();
+                }
+                transition(State.HALF_OPEN);
+                trialsInFlight = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialsInFlight >= settings.halfOpenTrials()) {
+                    throw reject();
+                }
+                trialsInFlight++;
+            }
+        }
+    }
+
+    void onSuccess() {
+        if (!settings.enabled()) {
+            return;
+        }
+        if (state == State.CLOSED) {
+            if (consecutiveFailures.get() != 0) {
+                consecutiveFailures.set(0);
+            }
+            return;
+        }
+
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                consecutiveFailures.set(0);
+                transition(State.CLOSED);
+            }
+        }
+    }
+
+    void onFailure() {
+        if (!settings.enabled()) {
+            return;
+        }
+        if (state == State.CLOSED && consecutiveFailures.incrementAndGet() < settings.failureThreshold()) {
+            return;
+        }
+
+        synchronized (this) {
+            if (state == State.HALF_OPEN
+                    || state == State.CLOSED && consecutiveFailures.get() >= settings.failureThreshold()) {
+                openedAtNanos = nanoClock.getAsLong();
+                transition(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Releases a permission whose outcome says nothing about the pricing host, e.g. a cancelled request.
+     */
+    void onIgnored() {
+        if (!settings.enabled() || state != State.HALF_OPEN) {
+            return;
+        }
+
+        synchronized (this) {
+            if (state == State.HALF_OPEN && trialsInFlight > 0) {
+                trialsInFlight--;
+            }
+        }
+    }
+
+    private PricingCircuitOpenException reject() {
+        rejected.increment();
+        return new PricingCircuitOpenException("Pricing circuit is " + state + ", request not sent");
+    }
+
+    private void transition(State next) {
+        if (state != next) {
+            log.warn("Pricing circuit breaker {} -> {}", state, next);
+            state = next;
+        }
+    }
+
+    public State state() {
+        return state;
+    }
+
+    long rejectedCount() {
+        return rejected.sum();
+    }
+}
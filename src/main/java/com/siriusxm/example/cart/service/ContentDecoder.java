@@ -0,0 +1,137 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.ProductFetchException;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes gzip and deflate response bodies, which {@link java.net.http.HttpClient} hands
+ * over still encoded, and counts the bytes received against the bytes they decoded to.
+ * <p>
+ * Decoding is streaming: bytes are inflated as the reader pulls them, and nothing is read
+ * until it does. Deflate bodies are accepted both zlib-wrapped, as the HTTP spec says, and
+ * raw, as some servers send them.
+ */
+final class ContentDecoder {
+
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private final LongAdder decodedResponses = new LongAdder();
+    private final LongAdder encodedBytes = new LongAdder();
+    private final LongAdder decodedBytes = new LongAdder();
+
+    static String contentEncoding(HttpResponse.ResponseInfo responseInfo) {
+        return responseInfo.headers().firstValue("Content-Encoding").orElse("identity").trim()
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Wraps {@code body} so that reading it yields decoded bytes. Reads nothing itself unless
+     * the encoding needs a header parsed, so call it on the thread that will read the body.
+     *
+     * @throws ProductFetchException if the encoding is not one we asked for
+     */
+    InputStream decode(InputStream body, String contentEncoding) throws IOException {
+        return switch (contentEncoding) {
+            case "identity", "" -> body;
+            case "gzip", "x-gzip" -> counted(new GZIPInputStream(counting(body, encodedBytes)));
+            case "deflate" -> counted(inflating(counting(body, encodedBytes)));
+            default -> throw new ProductFetchException("Unsupported content encoding: " + contentEncoding);
+        };
+    }
+
+    /**
+     * Like {@link HttpResponse.BodyHandlers#ofString()}, but decodes the body first if it is encoded.
+     * A body that fails to decode fails with a {@link ProductFetchException}: the payload is bad,
+     * so sending the request again would not help.
+     */
+    HttpResponse.BodyHandler<String> ofString() {
+        return responseInfo -> {
+            String encoding = contentEncoding(responseInfo);
+            if (encoding.equals("identity")) {
+                return HttpResponse.BodyHandlers.ofString().apply(responseInfo);
+            }
+            // the whole body is in memory by now, so decoding it here cannot block the client
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(),
+                    bytes -> decodeToString(bytes, encoding));
+        };
+    }
+
+    private String decodeToString(byte[] bytes, String encoding) {
+        try (InputStream decoded = decode(new ByteArrayInputStream(bytes), encoding)) {
+            return new String(decoded.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ProductFetchException("Failed to decode " + encoding + " response body", e);
+        }
+    }
+
+    private InputStream counted(InputStream decoded) {
+        decodedResponses.increment();
+        return counting(decoded, decodedBytes);
+    }
+
+    private static InputStream inflating(InputStream body) throws IOException {
+        PushbackInputStream peekable = new PushbackInputStream(body, 2);
+        byte[] header = peekable.readNBytes(2);
+        peekable.unread(header);
+        boolean zlib = header.length == 2
+                && (header[0] & 0x0F) == 8
+                && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(peekable, inflater) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end(); // not done for us when the inflater is passed in
+                }
+            }
+        };
+    }
+
+    private static InputStream counting(InputStream in, LongAdder counter) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    counter.increment();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    counter.add(n);
+                }
+                return n;
+            }
+        };
+    }
+
+    long decodedResponseCount() {
+        return decodedResponses.sum();
+    }
+
+    long encodedByteCount() {
+        return encodedBytes.sum();
+    }
+
+    long decodedByteCount() {
+        return decodedBytes.sum();
+    }
+}
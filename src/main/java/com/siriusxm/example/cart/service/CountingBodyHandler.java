@@ -0,0 +1,86 @@
+package com.siriusxm.example.cart.service;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * Wraps a {@link HttpResponse.BodyHandler} to report how many body bytes came off the wire,
+ * before any decoding, once the body has been received in full or its reader has stopped early.
+ */
+final class CountingBodyHandler<T> implements HttpResponse.BodyHandler<T> {
+
+    private final HttpResponse.BodyHandler<T> delegate;
+    private final LongConsumer bytesReceived;
+
+    CountingBodyHandler(HttpResponse.BodyHandler<T> delegate, LongConsumer bytesReceived) {
+        this.delegate = delegate;
+        this.bytesReceived = bytesReceived;
+    }
+
+    HttpResponse.BodyHandler<T> delegate() {
+        return delegate;
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<T> apply(HttpResponse.ResponseInfo responseInfo) {
+        HttpResponse.BodySubscriber<T> subscriber = delegate.apply(responseInfo);
+        return new HttpResponse.BodySubscriber<>() {
+            private volatile long received; // onNext calls are serialized by the client
+            private final AtomicBoolean reported = new AtomicBoolean();
+
+            @Override
+            public CompletionStage<T> getBody() {
+                return subscriber.getBody();
+            }
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                        subscription.request(n);
+                    }
+
+                    @Override
+                    public void cancel() {
+                        // a streaming parser closes the body once it has read the product
+                        report();
+                        subscription.cancel();
+                    }
+                });
+            }
+
+            @Override
+            public void onNext(List<ByteBuffer> buffers) {
+                long count = received;
+                for (ByteBuffer buffer : buffers) {
+                    count += buffer.remaining();
+                }
+                received = count;
+                subscriber.onNext(buffers);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                subscriber.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                report();
+                subscriber.onComplete();
+            }
+
+            private void report() {
+                if (reported.compareAndSet(false, true)) {
+                    bytesReceived.accept(received);
+                }
+            }
+        };
+    }
+}
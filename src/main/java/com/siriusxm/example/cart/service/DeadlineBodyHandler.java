@@ -0,0 +1,127 @@
+package com.siriusxm.example.cart.service;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Wraps a {@link HttpResponse.BodyHandler} so that one exchange, body included, ends within
+ * {@code timeout} of the handler being created, just before the request is sent.
+ * <p>
+ * {@link HttpRequest#timeout} only bounds the wait for the response headers, so a host that
+ * stalls mid-body would otherwise block a streaming reader forever. Once the deadline passes
+ * the exchange is cancelled and the body fails with an {@link HttpTimeoutException}, which also
+ * wakes a reader blocked on it.
+ */
+final class DeadlineBodyHandler<T> implements HttpResponse.BodyHandler<T> {
+
+    private final HttpResponse.BodyHandler<T> delegate;
+    private final Duration timeout;
+    private final long deadlineNanos;
+    private volatile boolean expired;
+
+    DeadlineBodyHandler(HttpResponse.BodyHandler<T> delegate, Duration timeout) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+    }
+
+    HttpResponse.BodyHandler<T> delegate() {
+        return delegate;
+    }
+
+    /**
+     * Whether the body was cut off by the deadline, so a failure reading it is really a timeout.
+     */
+    boolean expired() {
+        return expired;
+    }
+
+    HttpTimeoutException timeoutException() {
+        return new HttpTimeoutException("Response body not received within " + timeout.toMillis() + " ms");
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<T> apply(HttpResponse.ResponseInfo responseInfo) {
+        HttpResponse.BodySubscriber<T> subscriber = delegate.apply(responseInfo);
+        return new HttpResponse.BodySubscriber<>() {
+            // completed when the body ends or its reader stops early, which cancels the timer
+            private final CompletableFuture<Void> finished = new CompletableFuture<>();
+            private Flow.Subscription upstream;
+            private boolean terminated;
+
+            @Override
+            public CompletionStage<T> getBody() {
+                return subscriber.getBody();
+            }
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                synchronized (this) {
+                    upstream = subscription;
+                }
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                        subscription.request(n);
+                    }
+
+                    @Override
+                    public void cancel() {
+                        finished.complete(null);
+                        subscription.cancel();
+                    }
+                });
+                finished.orTimeout(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)
+                        .whenComplete((ignored, ex) -> {
+                            if (ex instanceof TimeoutException) {
+                                expire();
+                            }
+                        });
+            }
+
+            @Override
+            public synchronized void onNext(List<ByteBuffer> buffers) {
+                if (!terminated) {
+                    subscriber.onNext(buffers);
+                }
+            }
+
+            @Override
+            public synchronized void onError(Throwable throwable) {
+                if (!terminated) {
+                    terminated = true;
+                    finished.complete(null);
+                    subscriber.onError(throwable);
+                }
+            }
+
+            @Override
+            public synchronized void onComplete() {
+                if (!terminated) {
+                    terminated = true;
+                    finished.complete(null);
+                    subscriber.onComplete();
+                }
+            }
+
+            private synchronized void expire() {
+                if (terminated) {
+                    return;
+                }
+                terminated = true;
+                expired = true;
+                subscriber.onError(timeoutException()); // before cancelling, so the body fails with it
+                upstream.cancel();
+            }
+        };
+    }
+}
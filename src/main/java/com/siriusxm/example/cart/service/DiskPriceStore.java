@@ -0,0 +1,263 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Option;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pricing responses persisted to disk with their HTTP validators, so that after a restart
+ * products can be revalidated with a conditional request instead of fetched cold.
+ * <p>
+ * Entries live in memory and every change is appended to a single binary log file in the
+ * configured directory. The log is replayed on open and rewritten, keeping only the live
+ * entries, once it holds more than twice as many records as there are entries. Replay stops
+ * at a record torn by a crash or otherwise corrupt, keeping those before it, and the rewrite
+ * on open drops the rest. The directory is locked for as long as the store is open, so only
+ * one store, in this or any other process, writes a given log. If the directory is locked the
+ * store keeps working from memory only; if it cannot be used the store is disabled.
+ */
+public class DiskPriceStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DiskPriceStore.class);
+    static final String FILE_NAME = "prices.bin";
+    static final String LOCK_FILE_NAME = "prices.lock";
+    private static final int MAGIC = 0x50524331; // "PRC1"
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+
+    /**
+     * A stored product and the validators its response carried; either validator may be null.
+     */
+    public record Entry(Product product, String etag, String lastModified) {
+    }
+
+    private static final DiskPriceStore DISABLED = new DiskPriceStore(null);
+
+    private final Path file; // null when not persisting
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private DataOutputStream out;
+    private int records;
+    private FileChannel lock; // held while open; the log itself is replaced on compaction
+
+    private DiskPriceStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns a store that remembers nothing.
+     */
+    public static DiskPriceStore disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Opens the store in {@code directory}, creating it if needed and replaying any existing log,
+     * or keeps it in memory if another open store holds the directory. Returns a {@link #disabled()}
+     * store if the directory cannot be used.
+     */
+    public static DiskPriceStore open(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Disk cache directory cannot be null");
+        }
+
+        DiskPriceStore store = new DiskPriceStore(directory.resolve(FILE_NAME));
+        try {
+            Files.createDirectories(directory);
+            if (!store.tryLock(directory.resolve(LOCK_FILE_NAME))) {
+                log.warn("Disk price store at {} is in use by another instance, keeping prices in memory only",
+                        directory);
+                return store;
+            }
+            store.replay();
+            store.compact();
+            log.info("Disk price store opened at {} with {} entries", store.file, store.entries.size());
+        } catch (IOException e) {
+            log.warn("Disk price store at {} unavailable, not storing prices", directory, e);
+            store.close(); // releases the directory lock too
+            return DISABLED;
+        }
+        return store;
+    }
+
+    private boolean tryLock(Path lockFile) throws IOException {
+        FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (channel.tryLock() != null) {
+                lock = channel;
+                return true;
+            }
+        } catch (OverlappingFileLockException e) {
+            // held by another store in this JVM
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        return false;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    public Option<Entry> get(String key) {
+        return file == null ? Option.none() : Option.of(entries.get(key));
+    }
+
+    public void put(String key, Entry entry) {
+        if (file == null || entry.etag() == null && entry.lastModified() == null) {
+            return; // nothing to revalidate with, so not worth keeping
+        }
+        synchronized (this) {
+            if (!entry.equals(entries.put(key, entry))) {
+                append(PUT, key, entry);
+            }
+        }
+    }
+
+    public void remove(String key) {
+        if (file == null) {
+            return;
+        }
+        synchronized (this) {
+            if (entries.remove(key) != null) {
+                append(REMOVE, key, null);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // callers hold the lock, so the log records changes in the order they were made
+    private void append(byte type, String key, Entry entry) {
+        if (out == null) {
+            return;
+        }
+        try {
+            write(out, type, key, entry);
+            out.flush();
+            records++;
+            if (records > MIN_COMPACTION_RECORDS && records > 2 * entries.size()) {
+                compact();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write disk price store {}, keeping prices in memory only", file, e);
+            closeQuietly();
+        }
+    }
+
+    private void replay() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                log.warn("Ignoring disk price store {} with unknown format", file);
+                return;
+            }
+            while (true) {
+                byte type = in.readByte();
+                String key = in.readUTF();
+                if (type == PUT) {
+                    Product product = new Product(in.readUTF(), in.readDouble());
+                    entries.put(key, new Entry(product, readOptional(in), readOptional(in)));
+                } else if (type == REMOVE) {
+                    entries.remove(key);
+                } else {
+                    log.warn("Dropping disk price store {} from corrupt record type {}", file, type);
+                    return;
+                }
+            }
+        } catch (EOFException e) {
+            // end of log, possibly a torn final record
+        } catch (IllegalArgumentException e) {
+            log.warn("Dropping invalid record in disk price store {}", file, e);
+        }
+    }
+
+    /**
+     * Rewrites the log with one record per live entry and reopens it for appending.
+     */
+    private synchronized void compact() throws IOException {
+        closeQuietly();
+        Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+        try (DataOutputStream compacted = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            compacted.writeInt(MAGIC);
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                write(compacted, PUT, entry.getKey(), entry.getValue());
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        records = entries.size();
+
+        OutputStream appending = Files.newOutputStream(file, StandardOpenOption.APPEND);
+        out = new DataOutputStream(new BufferedOutputStream(appending));
+    }
+
+    private static void write(DataOutputStream out, byte type, String key, Entry entry) throws IOException {
+        out.writeByte(type);
+        out.writeUTF(key);
+        if (type == PUT) {
+            out.writeUTF(entry.product().name());
+            out.writeDouble(entry.product().price());
+            writeOptional(out, entry.etag());
+            writeOptional(out, entry.lastModified());
+        }
+    }
+
+    private static void writeOptional(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readOptional(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private void closeQuietly() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.debug("Failed to close disk price store {}", file, e);
+            }
+            out = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeQuietly();
+        if (lock != null) {
+            try {
+                lock.close(); // releases the directory lock
+            } catch (IOException e) {
+                log.debug("Failed to release disk price store lock for {}", file, e);
+            }
+            lock = null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.siriusxm.example.cart.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which occurrences of a frequent log event are written: the first of every
+ * {@code sampleEvery}, and of those no more than {@code maxPerSecond} in any one second.
+ * <p>
+ * Occurrences left out are counted, and {@link #takeSkipped()} hands the count to the next
+ * line written so it can say how many it stands for. Sampling is per event, so give each
+ * log statement its own sampler.
+ */
+final class LogSampler {
+
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int sampleEvery;
+    private final int maxPerSecond;
+    private final LongSupplier nanoClock;
+    private final AtomicLong occurrences = new AtomicLong();
+    private final AtomicLong windowStart;
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private final LongAdder skipped = new LongAdder();
+
+    LogSampler(PricingOptions.Logging logging) {
+        this(logging.sampleEvery(), logging.maxPerSecond(), System::nanoTime);
+    }
+
+    LogSampler(int sampleEvery, int maxPerSecond, LongSupplier nanoClock) {
+        if (sampleEvery <= 0) {
+            throw new IllegalArgumentException("Log sampling interval must be positive");
+        }
+        if (maxPerSecond < 0) {
+            throw new IllegalArgumentException("Log rate limit cannot be negative");
+        }
+        this.sampleEvery = sampleEvery;
+        this.maxPerSecond = maxPerSecond;
+        this.nanoClock = nanoClock;
+        this.windowStart = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Returns whether this occurrence should be logged, counting it as skipped if not.
+     */
+    boolean shouldLog() {
+        if (sampleEvery > 1 && (occurrences.getAndIncrement() % sampleEvery) != 0) {
+            skipped.increment();
+            return false;
+        }
+        if (maxPerSecond > 0 && !withinRate()) {
+            skipped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean withinRate() {
+        long now = nanoClock.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= SECOND_NANOS && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+        return windowCount.incrementAndGet() <= maxPerSecond;
+    }
+
+    /**
+     * Returns the number of occurrences skipped since the last call, and starts counting again.
+     */
+    long takeSkipped() {
+        return skipped.sumThenReset();
+    }
+
+    /**
+     * Cuts {@code payload} down to {@code maxChars}, noting how long it was, so one bad
+     * response cannot turn into a megabyte of log.
+     */
+    static String truncate(String payload, int maxChars) {
+        if (payload == null || payload.length() <= maxChars) {
+            return payload;
+        }
+        int end = Character.isHighSurrogate(payload.charAt(maxChars - 1)) ? maxChars - 1 : maxChars;
+        return payload.substring(0, end) + "... (" + payload.length() + " chars)";
+    }
+}
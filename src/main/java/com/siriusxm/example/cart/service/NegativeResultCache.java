@@ -0,0 +1,130 @@
+package com.siriusxm.example.cart.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.siriusxm.example.cart.exception.PricingStatusException;
+import io.vavr.control.Option;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers products the pricing host answered with an error status, so repeated lookups of
+ * unknown or broken products fail locally instead of asking again.
+ * <p>
+ * Failures are kept by status class, each in its own Caffeine cache with its own TTL and
+ * {@code maxEntries} cap, apart from the positive entries in {@link ProductPriceCache}:
+ * 4xx for {@code clientErrorTtl} and 5xx for {@code serverErrorTtl}. A zero TTL leaves that
+ * class uncached. 408 and 429 say nothing about the product and are never cached, and
+ * neither are transport failures.
+ */
+public class NegativeResultCache {
+
+    private static final NegativeResultCache DISABLED = new NegativeResultCache();
+
+    private final Cache<String, PricingStatusException> clientErrors; // null when not cached
+    private final Cache<String, PricingStatusException> serverErrors; // null when not cached
+    private final LongAdder hits = new LongAdder();
+
+    private NegativeResultCache() {
+        this.clientErrors = null;
+        this.serverErrors = null;
+    }
+
+    public NegativeResultCache(Duration clientErrorTtl, Duration serverErrorTtl, long maxEntries) {
+        this(clientErrorTtl, serverErrorTtl, maxEntries, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    NegativeResultCache(Duration clientErrorTtl, Duration serverErrorTtl, long maxEntries,
+                        Ticker ticker, Executor maintenanceExecutor) {
+        if (clientErrorTtl == null || clientErrorTtl.isNegative()) {
+            throw new IllegalArgumentException("Client error TTL cannot be negative");
+        }
+        if (serverErrorTtl == null || serverErrorTtl.isNegative()) {
+            throw new IllegalArgumentException("Server error TTL cannot be negative");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Negative cache max entries must be positive");
+        }
+
+        this.clientErrors = build(clientErrorTtl, maxEntries, ticker, maintenanceExecutor);
+        this.serverErrors = build(serverErrorTtl, maxEntries, ticker, maintenanceExecutor);
+    }
+
+    private static Cache<String, PricingStatusException> build(Duration ttl, long maxEntries, Ticker ticker,
+                                                               Executor maintenanceExecutor) {
+        return ttl.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxEntries)
+                .ticker(ticker)
+                .executor(maintenanceExecutor)
+                .build();
+    }
+
+    /**
+     * Returns a cache that remembers nothing.
+     */
+    public static NegativeResultCache disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Returns the failure remembered for {@code key}, if any; the same exception instance is handed to every caller.
+     */
+    public Option<PricingStatusException> get(String key) {
+        PricingStatusException failure = clientErrors == null ? null : clientErrors.getIfPresent(key);
+        if (failure == null && serverErrors != null) {
+            failure = serverErrors.getIfPresent(key);
+        }
+        if (failure != null) {
+            hits.increment();
+        }
+        return Option.of(failure);
+    }
+
+    /**
+     * Remembers {@code failure} for {@code key} if it is a status its class caches.
+     */
+    public void put(String key, Throwable failure) {
+        if (failure instanceof PricingStatusException status) {
+            Cache<String, PricingStatusException> cache = cacheFor(status.getStatusCode());
+            if (cache != null) {
+                cache.put(key, status);
+            }
+        }
+    }
+
+    private Cache<String, PricingStatusException> cacheFor(int statusCode) {
+        if (statusCode == 408 || statusCode == 429) {
+            return null;
+        }
+        if (statusCode >= 400 && statusCode < 500) {
+            return clientErrors;
+        }
+        return statusCode >= 500 && statusCode < 600 ? serverErrors : null;
+    }
+
+    public void invalidate(String key) {
+        if (clientErrors != null) {
+            clientErrors.invalidate(key);
+        }
+        if (serverErrors != null) {
+            serverErrors.invalidate(key);
+        }
+    }
+
+    public long size() {
+        return (clientErrors == null ? 0 : clientErrors.estimatedSize())
+                + (serverErrors == null ? 0 : serverErrors.estimatedSize());
+    }
+
+    /**
+     * Number of lookups answered with a remembered failure.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+}
@@ -0,0 +1,83 @@
+package com.siriusxm.example.cart.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one product price answered, either by a cache or by an exchange
+ * with the pricing host. Retries and hedges are exchanges of their own, so each gets an event.
+ * <p>
+ * Fields are only filled in once the event is known to be committed, so with recording off or
+ * below the threshold an event costs little more than its allocation.
+ */
+@Name(PricingFetchEvent.NAME)
+@Label("Pricing Fetch")
+@Category({"Shopping Cart", "Pricing"})
+@Description("A product price answered from a cache or fetched from the pricing host")
+@StackTrace(false)
+final class PricingFetchEvent extends Event {
+
+    static final String NAME = "com.siriusxm.cart.PricingFetch";
+
+    static final String HIT = "hit";
+    static final String STALE = "stale";
+    static final String NEGATIVE = "negative";
+    static final String MISS = "miss";
+    static final String REVALIDATED = "revalidated";
+
+    @Label("Product")
+    String product;
+
+    @Label("URL")
+    String url;
+
+    @Label("Status")
+    @Description("HTTP status of the response, or 0 when none was received")
+    int status;
+
+    @Label("Bytes")
+    @Description("Response body bytes received, before decoding")
+    @DataAmount
+    long bytes;
+
+    @Label("Cache Outcome")
+    @Description("hit, stale or negative when a cache answered; miss or revalidated when the host was asked")
+    String cacheOutcome;
+
+    static PricingFetchEvent start() {
+        PricingFetchEvent event = new PricingFetchEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the event for a product answered by a cache, without asking the pricing host.
+     */
+    void served(String product, String cacheOutcome) {
+        end();
+        if (shouldCommit()) {
+            this.product = product;
+            this.cacheOutcome = cacheOutcome;
+            commit();
+        }
+    }
+
+    /**
+     * Commits the event for an exchange with the pricing host.
+     */
+    void exchanged(String product, String url, int status, String cacheOutcome) {
+        end();
+        if (shouldCommit()) {
+            this.product = product;
+            this.url = url;
+            this.status = status;
+            this.cacheOutcome = cacheOutcome;
+            commit();
+        }
+    }
+}
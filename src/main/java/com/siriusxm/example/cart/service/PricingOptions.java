@@ -0,0 +1,263 @@
+package com.siriusxm.example.cart.service;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for {@link ProductPricingService}, bound from {@code cart.pricing.*}.
+ */
+public record PricingOptions(int maxInFlight, boolean streamingParse, boolean virtualThreads, Hedging hedging,
+                             Limiting limiting, Breaker breaker, Duration requestTimeout, Retrying retrying,
+                             boolean compression, Logging logging) {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 8;
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    public PricingOptions {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight requests must be positive");
+        }
+        if (hedging == null) {
+            throw new IllegalArgumentException("Hedging settings cannot be null");
+        }
+        if (limiting == null) {
+            throw new IllegalArgumentException("Limiting settings cannot be null");
+        }
+        if (breaker == null) {
+            throw new IllegalArgumentException("Circuit breaker settings cannot be null");
+        }
+        if (requestTimeout == null || requestTimeout.isNegative() || requestTimeout.isZero()) {
+            throw new IllegalArgumentException("Request timeout must be positive");
+        }
+        if (retrying == null) {
+            throw new IllegalArgumentException("Retry settings cannot be null");
+        }
+        if (logging == null) {
+            throw new IllegalArgumentException("Logging settings cannot be null");
+        }
+    }
+
+    /**
+     * When to send a duplicate of a slow request; see {@link RequestHedger}.
+     *
+     * @param percentile recent-latency percentile a request must exceed before it is hedged, or 0 to disable
+     * @param minDelay   lower bound on the hedge delay, however fast recent responses were
+     * @param maxRate    hedges allowed per request, as a fraction, bounding the extra load on the pricing host
+     */
+    public record Hedging(double percentile, Duration minDelay, double maxRate) {
+
+        public static final Hedging DISABLED = new Hedging(0, Duration.ZERO, 0);
+
+        public Hedging {
+            if (percentile < 0 || percentile >= 100) {
+                throw new IllegalArgumentException("Hedge percentile must be at least 0 and below 100");
+            }
+            if (minDelay == null || minDelay.isNegative()) {
+                throw new IllegalArgumentException("Hedge minimum delay cannot be negative");
+            }
+            if (maxRate < 0 || maxRate > 1) {
+                throw new IllegalArgumentException("Hedge rate must be between 0 and 1");
+            }
+        }
+
+        public boolean enabled() {
+            return percentile > 0 && maxRate > 0;
+        }
+    }
+
+    /**
+     * Adaptive cap on outbound requests in flight; see {@link AdaptiveConcurrencyLimiter}.
+     *
+     * @param initialLimit limit to start from
+     * @param minLimit     the limit never backs off below this
+     * @param maxLimit     the limit never grows above this
+     * @param backoffRatio factor the limit is multiplied by on a congestion signal
+     * @param rttTolerance how many times the baseline round-trip a response may take before it counts as congestion
+     */
+    public record Limiting(boolean enabled, int initialLimit, int minLimit, int maxLimit,
+                           double backoffRatio, double rttTolerance) {
+
+        public static final Limiting DISABLED = new Limiting(false, 20, 1, 200, 0.9, 2.0);
+
+        public Limiting {
+            if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Concurrency limits must satisfy 0 < min <= initial <= max");
+            }
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("Limit backoff ratio must be between 0 and 1");
+            }
+            if (rttTolerance < 1) {
+                throw new IllegalArgumentException("RTT tolerance must be at least 1");
+            }
+        }
+    }
+
+    /**
+     * When to stop calling the pricing host; see {@link CircuitBreaker}.
+     *
+     * @param failureThreshold consecutive failed exchanges that open the circuit
+     * @param openDuration     how long the circuit stays open before trial requests are let through
+     * @param halfOpenTrials   how many trial requests may be in flight while half-open
+     */
+    public record Breaker(boolean enabled, int failureThreshold, Duration openDuration, int halfOpenTrials) {
+
+        public static final Breaker DISABLED = new Breaker(false, 5, Duration.ofSeconds(30), 1);
+
+        public Breaker {
+            if (failureThreshold <= 0) {
+                throw new IllegalArgumentException("Circuit breaker failure threshold must be positive");
+            }
+            if (openDuration == null || openDuration.isNegative() || openDuration.isZero()) {
+                throw new IllegalArgumentException("Circuit breaker open duration must be positive");
+            }
+            if (halfOpenTrials <= 0) {
+                throw new IllegalArgumentException("Circuit breaker half-open trials must be positive");
+            }
+        }
+    }
+
+    /**
+     * How failed requests are retried. Only transport failures, including timeouts, and 5xx
+     * responses are retried, after a backoff drawn uniformly from zero up to
+     * {@code initialBackoff * 2^(retry - 1)}, capped at {@code maxBackoff}.
+     *
+     * @param maxAttempts attempts per request including the first, so 1 disables retries
+     * @param budgetRatio retries allowed per request, as a fraction, bounding the extra load on the pricing host
+     */
+    public record Retrying(int maxAttempts, Duration initialBackoff, Duration maxBackoff, double budgetRatio) {
+
+        public static final Retrying DISABLED = new Retrying(1, Duration.ofMillis(50), Duration.ofSeconds(1), 0);
+
+        public Retrying {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("Max attempts must be positive");
+            }
+            if (initialBackoff == null || initialBackoff.isNegative() || initialBackoff.isZero()
+                    || maxBackoff == null || maxBackoff.compareTo(initialBackoff) < 0) {
+                throw new IllegalArgumentException("Backoff must be positive and no more than the maximum backoff");
+            }
+            if (budgetRatio < 0 || budgetRatio > 1) {
+                throw new IllegalArgumentException("Retry budget ratio must be between 0 and 1");
+            }
+        }
+    }
+
+    /**
+     * How per-request failures are logged; see {@link LogSampler}. Successful fetches are only logged at DEBUG.
+     *
+     * @param sampleEvery     log the first of every this many occurrences of an event, so 1 logs each one
+     * @param maxPerSecond    occurrences of an event logged in any one second at most, or 0 for no limit
+     * @param maxPayloadChars characters of a response body included in a log line at most
+     */
+    public record Logging(int sampleEvery, int maxPerSecond, int maxPayloadChars) {
+
+        public static final Logging UNLIMITED = new Logging(1, 0, Integer.MAX_VALUE);
+
+        public Logging {
+            if (sampleEvery <= 0) {
+                throw new IllegalArgumentException("Log sampling interval must be positive");
+            }
+            if (maxPerSecond < 0) {
+                throw new IllegalArgumentException("Log rate limit cannot be negative");
+            }
+            if (maxPayloadChars <= 0) {
+                throw new IllegalArgumentException("Logged payload length must be positive");
+            }
+        }
+    }
+
+    public static PricingOptions defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+        private boolean streamingParse;
+        private boolean virtualThreads;
+        private Hedging hedging = Hedging.DISABLED;
+        private Limiting limiting = Limiting.DISABLED;
+        private Breaker breaker = Breaker.DISABLED;
+        private Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+        private Retrying retrying = Retrying.DISABLED;
+        private boolean compression;
+        private Logging logging = Logging.UNLIMITED;
+
+        private Builder() {
+        }
+
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Parse response bodies straight off the wire instead of reading them into a String first.
+         */
+        public Builder streamingParse(boolean streamingParse) {
+            this.streamingParse = streamingParse;
+            return this;
+        }
+
+        /**
+         * Run blocking pricing calls on virtual threads: the HttpClient's executor and the
+         * per-product fan-out in {@link CartPricingService}.
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        public Builder hedging(Hedging hedging) {
+            this.hedging = hedging;
+            return this;
+        }
+
+        public Builder limiting(Limiting limiting) {
+            this.limiting = limiting;
+            return this;
+        }
+
+        public Builder breaker(Breaker breaker) {
+            this.breaker = breaker;
+            return this;
+        }
+
+        /**
+         * Deadline for a single exchange, from sending the request until the whole response body has been read.
+         */
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        public Builder retrying(Retrying retrying) {
+            this.retrying = retrying;
+            return this;
+        }
+
+        /**
+         * Ask for gzip or deflate response bodies and decompress them as they are read.
+         */
+        public Builder compression(boolean compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        /**
+         * Sample, rate-limit and truncate the per-request failure lines, which otherwise log every occurrence in full.
+         */
+        public Builder logging(Logging logging) {
+            this.logging = logging;
+            return this;
+        }
+
+        public PricingOptions build() {
+            return new PricingOptions(maxInFlight, streamingParse, virtualThreads, hedging, limiting, breaker,
+                    requestTimeout, retrying, compression, logging);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Try;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prefetches a known list of products through the cached {@link ProductSource} at startup,
+ * so the first carts after a deploy are priced from the cache rather than the network.
+ * <p>
+ * Runs as an {@link ApplicationRunner}, before the application reports itself ready. Products
+ * are fetched on virtual threads, at most {@code maxInFlight} at a time, and the warm-up gives
+ * up after {@code budget}: fetches still outstanding then are cancelled and startup carries
+ * on. Failures are reported but never fail startup.
+ */
+public class PricingWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PricingWarmup.class);
+
+    /**
+     * Outcome of one warm-up: which products failed, and how many were still outstanding when the budget ran out.
+     */
+    public record Report(int requested, int warmed, List<String> failed, int abandoned, Duration elapsed) {
+    }
+
+    private final ProductSource productSource;
+    private final List<String> productNames;
+    private final Duration budget;
+    private final int maxInFlight;
+
+    public PricingWarmup(ProductSource productSource, Collection<String> productNames, Duration budget,
+                         int maxInFlight) {
+        if (productSource == null) {
+            throw new IllegalArgumentException("ProductSource cannot be null");
+        }
+        if (productNames == null) {
+            throw new IllegalArgumentException("Product names cannot be null");
+        }
+        if (budget == null || budget.isNegative() || budget.isZero()) {
+            throw new IllegalArgumentException("Warm-up budget must be positive");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in flight must be positive");
+        }
+
+        this.productSource = productSource;
+        this.productNames = productNames.stream()
+                .filter(productName -> productName != null && !productName.isBlank())
+                .map(String::trim)
+                .distinct()
+                .toList();
+        this.budget = budget;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Reads product names from a file with one name per line; blank lines and lines starting with {@code #} are skipped.
+     */
+    public static List<String> readProductNames(Path file) throws IOException {
+        List<String> productNames = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            String productName = line.trim();
+            if (!productName.isEmpty() && !productName.startsWith("#")) {
+                productNames.add(productName);
+            }
+        }
+        return productNames;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    public Report warmUp() {
+        long started = System.nanoTime();
+        long deadline = started + budget.toNanos();
+        Semaphore permits = new Semaphore(maxInFlight);
+        Map<Future<Try<Product>>, String> pending = new LinkedHashMap<>();
+        List<String> failed = new ArrayList<>();
+        int warmed = 0;
+
+        ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            CompletionService<Try<Product>> completion = new ExecutorCompletionService<>(scope);
+            for (String productName : productNames) {
+                pending.put(completion.submit(() -> fetchWithPermit(productName, permits)), productName);
+            }
+
+            for (int i = 0; i < productNames.size(); i++) {
+                Future<Try<Product>> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    break; // out of budget
+                }
+                String productName = pending.remove(done);
+                Try<Product> result = resultOf(done);
+                if (result.isSuccess()) {
+                    warmed++;
+                } else {
+                    failed.add(productName);
+                    log.warn("Pricing warm-up failed for product {}: {}", productName, result.getCause().toString());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Pricing warm-up interrupted");
+        } finally {
+            // don't wait for abandoned fetches, the point of the budget is to stop waiting
+            pending.keySet().forEach(future -> future.cancel(true));
+            scope.shutdownNow();
+        }
+
+        Report report = new Report(productNames.size(), warmed, List.copyOf(failed), pending.size(),
+                Duration.ofNanos(System.nanoTime() - started));
+        if (report.abandoned() > 0) {
+            log.warn("Pricing warm-up ran out of its {} ms budget with {} of {} products outstanding",
+                    budget.toMillis(), report.abandoned(), report.requested());
+        }
+        log.info("Pricing warm-up finished in {} ms: {} of {} products warmed, {} failed, {} abandoned",
+                report.elapsed().toMillis(), report.warmed(), report.requested(), report.failed().size(),
+                report.abandoned());
+        return report;
+    }
+
+    private Try<Product> fetchWithPermit(String productName, Semaphore permits) throws InterruptedException {
+        permits.acquire();
+        try {
+            return productSource.fetchProduct(productName);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static Try<Product> resultOf(Future<Try<Product>> done) throws InterruptedException {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            return Try.failure(e.getCause());
+        }
+    }
+
+    public List<String> getProductNames() {
+        return productNames;
+    }
+}
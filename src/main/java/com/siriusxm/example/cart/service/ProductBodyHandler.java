@@ -0,0 +1,57 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Product;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Streams a pricing response body straight into {@link ProductJsonParser}.
+ * <p>
+ * The body is exposed as a lazy {@link Supplier} over the response stream, as
+ * {@link HttpResponse.BodySubscribers#mapping} recommends for blocking readers, so
+ * parsing runs on the caller's thread and no String or JSON tree is built.
+ * Bodies of non-200 responses are discarded unread. A gzip or deflate body is
+ * decompressed by a {@link ContentDecoder} as the parser reads it.
+ */
+final class ProductBodyHandler implements HttpResponse.BodyHandler<Supplier<Product>> {
+
+    static final ProductBodyHandler INSTANCE = new ProductBodyHandler(new ContentDecoder());
+
+    private static final Supplier<Product> NO_PRODUCT = () -> {
+        throw new ProductFetchException("No product body for non-200 response");
+    };
+
+    private final ContentDecoder decoder;
+
+    ProductBodyHandler(ContentDecoder decoder) {
+        this.decoder = decoder;
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<Supplier<Product>> apply(HttpResponse.ResponseInfo responseInfo) {
+        if (responseInfo.statusCode() != 200) {
+            return HttpResponse.BodySubscribers.replacing(NO_PRODUCT);
+        }
+        String encoding = ContentDecoder.contentEncoding(responseInfo);
+        return HttpResponse.BodySubscribers.mapping(
+                HttpResponse.BodySubscribers.ofInputStream(),
+                body -> parseLazily(body, encoding));
+    }
+
+    private Supplier<Product> parseLazily(InputStream body, String encoding) {
+        return () -> {
+            // body is closed even when decoding fails before the decoded stream exists
+            try (body; InputStream decoded = decoder.decode(body, encoding)) {
+                return ProductJsonParser.parse(new InputStreamReader(decoded, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new ProductFetchException("Failed to read product response body", e);
+            }
+        };
+    }
+}
@@ -0,0 +1,191 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Money;
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Try;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Prices products from a binary catalog file instead of the pricing host, for batch
+ * repricing where HTTP is too slow. Files are written by {@link ProductCatalogSnapshotBuilder}.
+ * <p>
+ * The file is memory-mapped read-only and never copied onto the heap. Layout, big-endian:
+ * <pre>
+ *   header  int magic, int version, int count, int reserved
+ *   slots   count x {int keyOffset, int keyLength, int titleOffset, int titleLength, long priceMicros}
+ *   chars   UTF-16 code units of every key and title
+ * </pre>
+ * Offsets and lengths in a slot count chars from the start of the chars section. Slots are
+ * sorted by key, the normalised product name, so a lookup is a binary search that compares
+ * the name against the mapped chars in place. Each title is read into a {@link String} on its
+ * first hit and reused after that, so a repeat lookup allocates only the returned {@link Product}.
+ * Every slot is checked against the file size on open, so a corrupt file is rejected up front
+ * rather than failing lookups.
+ */
+public class ProductCatalogSnapshot implements ProductSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalogSnapshot.class);
+    static final int MAGIC = 0x43415431; // "CAT1"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int SLOT_BYTES = 24;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int charsStart;
+    private final String[] titles; // filled in on first hit; a racing duplicate read is harmless
+
+    private ProductCatalogSnapshot(ByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+        this.charsStart = HEADER_BYTES + count * SLOT_BYTES;
+        this.titles = new String[count];
+    }
+
+    /**
+     * Maps {@code file} and checks its header.
+     *
+     * @throws IOException if the file cannot be read or is not a catalog snapshot
+     */
+    public static ProductCatalogSnapshot open(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("Catalog file cannot be null");
+        }
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a product catalog snapshot: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported product catalog version " + buffer.getInt(4) + " in " + file);
+        }
+        int count = buffer.getInt(8);
+        if (count < 0 || (long) HEADER_BYTES + (long) count * SLOT_BYTES > buffer.capacity()) {
+            throw new IOException("Corrupt product catalog header in " + file);
+        }
+        long chars = (buffer.capacity() - HEADER_BYTES - (long) count * SLOT_BYTES) / Character.BYTES;
+        for (int slot = 0; slot < count; slot++) {
+            int base = HEADER_BYTES + slot * SLOT_BYTES;
+            if (!inChars(buffer, base, chars) || !inChars(buffer, base + 8, chars)) {
+                throw new IOException("Corrupt product catalog slot " + slot + " in " + file);
+            }
+        }
+
+        log.info("Product catalog snapshot {} mapped with {} products", file, count);
+        return new ProductCatalogSnapshot(buffer, count);
+    }
+
+    /**
+     * Whether the offset and length at {@code position} describe a run within the {@code chars} chars.
+     */
+    private static boolean inChars(ByteBuffer buffer, int position, long chars) {
+        int offset = buffer.getInt(position);
+        int length = buffer.getInt(position + 4);
+        return offset >= 0 && length >= 0 && (long) offset + length <= chars;
+    }
+
+    @Override
+    public Try<Product> fetchProduct(String productName) {
+        if (productName == null || productName.isBlank()) {
+            return Try.failure(new ProductFetchException("Product name cannot be null or blank"));
+        }
+
+        int slot = find(ProductPricingService.normalizeName(productName));
+        if (slot < 0) {
+            return Try.failure(new ProductFetchException("Product not in catalog snapshot: " + productName));
+        }
+        try {
+            return Try.success(productAt(slot));
+        } catch (IllegalArgumentException e) {
+            // in bounds but not a valid product, such as a blank title
+            return Try.failure(new ProductFetchException("Corrupt catalog snapshot entry for " + productName, e));
+        }
+    }
+
+    @Override
+    public Map<String, Try<Product>> fetchProducts(Collection<String> productNames) {
+        if (productNames == null) {
+            throw new IllegalArgumentException("Product names cannot be null");
+        }
+
+        Map<String, Try<Product>> results = new LinkedHashMap<>();
+        for (String productName : new LinkedHashSet<>(productNames)) {
+            results.put(productName, fetchProduct(productName));
+        }
+        return Collections.unmodifiableMap(results);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private int find(String key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compareKey(mid, key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the key in {@code slot} with {@code key} the way {@link String#compareTo} would.
+     */
+    private int compareKey(int slot, String key) {
+        int base = HEADER_BYTES + slot * SLOT_BYTES;
+        int offset = charsStart + buffer.getInt(base) * Character.BYTES;
+        int length = buffer.getInt(base + 4);
+        int shared = Math.min(length, key.length());
+        for (int i = 0; i < shared; i++) {
+            int difference = buffer.getChar(offset + i * Character.BYTES) - key.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - key.length();
+    }
+
+    private Product productAt(int slot) {
+        int base = HEADER_BYTES + slot * SLOT_BYTES;
+        String title = titles[slot];
+        if (title == null) {
+            title = readChars(charsStart + buffer.getInt(base + 8) * Character.BYTES, buffer.getInt(base + 12));
+            titles[slot] = title;
+        }
+        return new Product(title, Money.toDouble(buffer.getLong(base + 16)));
+    }
+
+    private String readChars(int offset, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = buffer.getChar(offset + i * Character.BYTES);
+        }
+        return new String(chars);
+    }
+}
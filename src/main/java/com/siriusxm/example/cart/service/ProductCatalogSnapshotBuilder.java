@@ -0,0 +1,110 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.model.Product;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Builds a {@link ProductCatalogSnapshot} file from pricing documents.
+ * <p>
+ * Each {@code <name>.json} document is keyed by its file name, the same name the pricing
+ * URL uses. Run with {@code ./gradlew buildCatalogSnapshot -Pdocuments=<dir> -Psnapshot=<file>}
+ * or directly: {@code ProductCatalogSnapshotBuilder <snapshot file> <json file or directory>...}
+ */
+public final class ProductCatalogSnapshotBuilder {
+
+    private static final String JSON_EXTENSION = ".json";
+
+    private ProductCatalogSnapshotBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ProductCatalogSnapshotBuilder <snapshot file> <json file or directory>...");
+            System.exit(2);
+        }
+
+        List<Path> documents = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            documents.addAll(jsonDocuments(Path.of(args[i])));
+        }
+        Map<String, Product> products = readDocuments(documents);
+        write(Path.of(args[0]), products);
+        System.out.println("Wrote " + products.size() + " products to " + args[0]);
+    }
+
+    private static List<Path> jsonDocuments(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(JSON_EXTENSION)).sorted().toList();
+        }
+    }
+
+    /**
+     * Parses each document, keyed by its normalised file name without the extension.
+     */
+    public static Map<String, Product> readDocuments(List<Path> documents) throws IOException {
+        Map<String, Product> products = new TreeMap<>();
+        for (Path document : documents) {
+            String fileName = document.getFileName().toString();
+            if (!fileName.endsWith(JSON_EXTENSION)) {
+                throw new IllegalArgumentException("Not a JSON pricing document: " + document);
+            }
+            String key = ProductPricingService.normalizeName(
+                    fileName.substring(0, fileName.length() - JSON_EXTENSION.length()));
+            try (Reader reader = Files.newBufferedReader(document, StandardCharsets.UTF_8)) {
+                products.put(key, ProductJsonParser.parse(reader));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Writes {@code products}, keyed by normalised product name, to {@code file}, replacing it atomically.
+     */
+    public static void write(Path file, Map<String, Product> products) throws IOException {
+        Map<String, Product> sorted = new TreeMap<>();
+        products.forEach((name, product) -> sorted.put(ProductPricingService.normalizeName(name), product));
+
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(ProductCatalogSnapshot.MAGIC);
+            out.writeInt(ProductCatalogSnapshot.VERSION);
+            out.writeInt(sorted.size());
+            out.writeInt(0);
+
+            int charOffset = 0;
+            for (Map.Entry<String, Product> entry : sorted.entrySet()) {
+                String title = entry.getValue().name();
+                out.writeInt(charOffset);
+                out.writeInt(entry.getKey().length());
+                out.writeInt(charOffset + entry.getKey().length());
+                out.writeInt(title.length());
+                out.writeLong(entry.getValue().priceMicros());
+                charOffset += entry.getKey().length() + title.length();
+            }
+            for (Map.Entry<String, Product> entry : sorted.entrySet()) {
+                out.writeChars(entry.getKey());
+                out.writeChars(entry.getValue().name());
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
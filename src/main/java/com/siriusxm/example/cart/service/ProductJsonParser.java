@@ -0,0 +1,65 @@
+package com.siriusxm.example.cart.service;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Product;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Pulls {@code title} and {@code price} out of a pricing document with Gson's streaming
+ * {@link JsonReader}, skipping every other value without building a tree for it.
+ */
+final class ProductJsonParser {
+
+    private ProductJsonParser() {
+    }
+
+    static Product parse(Reader source) {
+        JsonReader reader = new JsonReader(source);
+        reader.setLenient(true);
+        try (reader) {
+            if (isEmpty(reader)) {
+                throw new ProductFetchException("Received empty response from pricing service");
+            }
+
+            String title = null;
+            double price = 0;
+            boolean hasPrice = false;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case ProductPricingService.TITLE -> title = reader.nextString();
+                    case ProductPricingService.PRICE -> {
+                        price = reader.nextDouble();
+                        hasPrice = true;
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (title == null || !hasPrice) {
+                throw new IllegalStateException("Missing " + (title == null ? ProductPricingService.TITLE
+                        : ProductPricingService.PRICE) + " in product JSON");
+            }
+            return new Product(title, price);
+        } catch (ProductFetchException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw new ProductFetchException("Failed to parse product JSON", e);
+        }
+    }
+
+    private static boolean isEmpty(JsonReader reader) throws IOException {
+        try {
+            return reader.peek() == JsonToken.END_DOCUMENT;
+        } catch (EOFException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.siriusxm.example.cart.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Option;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * In-process cache of fetched products, keyed by normalised product name.
+ * <p>
+ * Backed by Caffeine: the entry count is bounded with W-TinyLFU eviction and
+ * reads are lock-free. An entry is fresh for {@code ttl} after it was written.
+ * With refresh-ahead enabled, an entry becomes due for a background refresh
+ * {@code refreshAhead} before it goes stale and may still be served for up to
+ * {@code maxStale} after, while the refresh is in flight; only then is it
+ * dropped.
+ * <p>
+ * With a fallback TTL set, every product written is also kept as the last known
+ * good price for that long, to serve when the pricing host cannot be asked.
+ */
+public class ProductPriceCache {
+
+    /**
+     * A cached product and the ticker time it was written at.
+     */
+    public record Entry(Product product, long writtenAtNanos) {
+    }
+
+    private final Cache<String, Entry> cache;
+    private final Cache<String, Product> lastKnownGood; // null when there is no fallback
+    private final Ticker ticker;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final boolean refreshEnabled;
+
+    public ProductPriceCache(Duration ttl, long maxEntries) {
+        this(ttl, maxEntries, Duration.ZERO, Duration.ZERO);
+    }
+
+    public ProductPriceCache(Duration ttl, long maxEntries, Duration refreshAhead, Duration maxStale) {
+        this(ttl, maxEntries, refreshAhead, maxStale, Duration.ZERO);
+    }
+
+    public ProductPriceCache(Duration ttl, long maxEntries, Duration refreshAhead, Duration maxStale,
+                             Duration fallbackTtl) {
+        this(ttl, maxEntries, refreshAhead, maxStale, fallbackTtl, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    ProductPriceCache(Duration ttl, long maxEntries, Ticker ticker, Executor maintenanceExecutor) {
+        this(ttl, maxEntries, Duration.ZERO, Duration.ZERO, ticker, maintenanceExecutor);
+    }
+
+    ProductPriceCache(Duration ttl, long maxEntries, Duration refreshAhead, Duration maxStale,
+                      Ticker ticker, Executor maintenanceExecutor) {
+        this(ttl, maxEntries, refreshAhead, maxStale, Duration.ZERO, ticker, maintenanceExecutor);
+    }
+
+    ProductPriceCache(Duration ttl, long maxEntries, Duration refreshAhead, Duration maxStale,
+                      Duration fallbackTtl, Ticker ticker, Executor maintenanceExecutor) {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache max entries must be positive");
+        }
+        if (refreshAhead == null || refreshAhead.isNegative() || refreshAhead.compareTo(ttl) >= 0) {
+            throw new IllegalArgumentException("Cache refresh-ahead must be non-negative and shorter than the TTL");
+        }
+        if (maxStale == null || maxStale.isNegative()) {
+            throw new IllegalArgumentException("Cache max staleness cannot be negative");
+        }
+        if (fallbackTtl == null || fallbackTtl.isNegative()) {
+            throw new IllegalArgumentException("Cache fallback TTL cannot be negative");
+        }
+
+        this.ticker = ticker;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAheadNanos = refreshAhead.toNanos();
+        this.refreshEnabled = !refreshAhead.isZero() || !maxStale.isZero();
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl.plus(maxStale))
+                .maximumSize(maxEntries)
+                .ticker(ticker)
+                .executor(maintenanceExecutor)
+                .recordStats()
+                .build();
+        this.lastKnownGood = fallbackTtl.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(fallbackTtl)
+                .maximumSize(maxEntries)
+                .ticker(ticker)
+                .executor(maintenanceExecutor)
+                .build();
+    }
+
+    public Option<Product> get(String key) {
+        return lookup(key).map(Entry::product);
+    }
+
+    /**
+     * Returns the entry for {@code key}, which may be stale if refresh-ahead is enabled.
+     */
+    public Option<Entry> lookup(String key) {
+        return Option.of(cache.getIfPresent(key));
+    }
+
+    /**
+     * Whether {@code entry} is close enough to, or past, its TTL to be refreshed in the background.
+     */
+    public boolean isRefreshDue(Entry entry) {
+        return refreshEnabled && ticker.read() - entry.writtenAtNanos() >= ttlNanos - refreshAheadNanos;
+    }
+
+    /**
+     * Returns the last product written for {@code key} within the fallback TTL, even if it has left the cache.
+     */
+    public Option<Product> lastKnownGood(String key) {
+        return lastKnownGood == null ? Option.none() : Option.of(lastKnownGood.getIfPresent(key));
+    }
+
+    public void put(String key, Product product) {
+        cache.put(key, new Entry(product, ticker.read()));
+        if (lastKnownGood != null) {
+            lastKnownGood.put(key, product);
+        }
+    }
+
+    public void invalidate(String key) {
+        cache.invalidate(key);
+        if (lastKnownGood != null) {
+            lastKnownGood.invalidate(key);
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    /**
+     * Hit, miss and eviction counters since the cache was created.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
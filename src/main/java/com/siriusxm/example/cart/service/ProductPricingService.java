@@ -1,103 +1,732 @@
 package com.siriusxm.example.cart.service;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.siriusxm.example.cart.exception.PricingCircuitOpenException;
+import com.siriusxm.example.cart.exception.PricingOverloadException;
+import com.siriusxm.example.cart.exception.PricingStatusException;
 import com.siriusxm.example.cart.exception.ProductFetchException;
 import com.siriusxm.example.cart.model.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.vavr.control.Option;
 import io.vavr.control.Try;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
 @Service
-public class ProductPricingService {
+public class ProductPricingService implements ProductSource, AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(ProductPricingService.class);
     private static final String JSON_EXTENSION = ".json";
     public static final String TITLE = "title";
     public static final String PRICE = "price";
+    private static final double RETRY_BUDGET_CAPACITY = 10;
+
+    /**
+     * How a response body is received and turned into a {@link Product}.
+     */
+    private record BodyFormat<T>(HttpResponse.BodyHandler<T> handler, Function<T, Product> reader) {
+
+        BodyFormat<T> counting(LongConsumer bytesReceived) {
+            return new BodyFormat<>(new CountingBodyHandler<>(handler, bytesReceived), reader);
+        }
+    }
+
+    private static final BodyFormat<Supplier<Product>> STREAMING_BODY =
+            new BodyFormat<>(ProductBodyHandler.INSTANCE, Supplier::get);
 
     private final HttpClient httpClient;
+    private final ExecutorService responseExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<CompletableFuture<?>> asyncFetches = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
     private final String baseUrl;
+    private final PricingOptions options;
+    private final BodyFormat<?> bodyFormat;
+    private final RequestHedger hedger;
+    private final Semaphore fetchPermits;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker breaker;
+    private final TokenBudget retryBudget;
+    private final LongAdder retries = new LongAdder();
+    private final DiskPriceStore diskStore;
+    private final LongAdder notModified = new LongAdder();
+    private final ContentDecoder decoder = new ContentDecoder();
+    private final MeterRegistry meterRegistry;
+    private final Timer fetchSucceeded;
+    private final Timer fetchFailed;
+    private final DistributionSummary responseBytes;
+    private final Map<Integer, Counter> responsesByStatus = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Counter> errorsByType = new ConcurrentHashMap<>();
+    private final LogSampler statusLog;
+    private final LogSampler parseLog;
+    private final LogSampler unexpectedLog;
 
+    public ProductPricingService(HttpClient httpClient, String baseUrl) {
+        this(httpClient, baseUrl, PricingOptions.defaults());
+    }
+
+    public ProductPricingService(HttpClient httpClient, String baseUrl, PricingOptions options) {
+        this(httpClient, baseUrl, options, DiskPriceStore.disabled());
+    }
+
+    public ProductPricingService(HttpClient httpClient, String baseUrl, PricingOptions options,
+                                 DiskPriceStore diskStore) {
+        this(httpClient, baseUrl, options, diskStore, Metrics.globalRegistry);
+    }
+
+    @Autowired
     public ProductPricingService(
             HttpClient httpClient,
-            @Value("${cart.pricing.base-url}") String baseUrl) {
+            @Value("${cart.pricing.base-url}") String baseUrl,
+            PricingOptions options,
+            DiskPriceStore diskStore,
+            MeterRegistry meterRegistry) {
         if (httpClient == null) {
             throw new IllegalArgumentException("HttpClient cannot be null");
         }
         if (baseUrl == null || baseUrl.isBlank()) {
             throw new IllegalArgumentException("Base URL cannot be null or blank");
         }
+        if (options == null) {
+            throw new IllegalArgumentException("PricingOptions cannot be null");
+        }
+        if (diskStore == null) {
+            throw new IllegalArgumentException("DiskPriceStore cannot be null");
+        }
+        if (meterRegistry == null) {
+            throw new IllegalArgumentException("MeterRegistry cannot be null");
+        }
 
         this.httpClient = httpClient;
         this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
-        log.info("ProductPricingService initialized with base URL: {}", this.baseUrl);
+        this.options = options;
+        this.statusLog = new LogSampler(options.logging());
+        this.parseLog = new LogSampler(options.logging());
+        this.unexpectedLog = new LogSampler(options.logging());
+        this.meterRegistry = meterRegistry;
+        this.fetchSucceeded = fetchTimer("success", meterRegistry);
+        this.fetchFailed = fetchTimer("failure", meterRegistry);
+        this.responseBytes = DistributionSummary.builder("cart.pricing.response.size")
+                .description("Pricing response body bytes received, before decoding")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.bodyFormat = bodyFormat().counting(responseBytes::record);
+        registerCompressionCounters(meterRegistry);
+        this.fetchPermits = new Semaphore(options.maxInFlight());
+        this.hedger = new RequestHedger(options.hedging(), responseExecutor);
+        this.limiter = new AdaptiveConcurrencyLimiter(options.limiting());
+        this.breaker = new CircuitBreaker(options.breaker());
+        this.retryBudget = new TokenBudget(options.retrying().budgetRatio(), RETRY_BUDGET_CAPACITY,
+                RETRY_BUDGET_CAPACITY);
+        this.diskStore = diskStore;
+        log.info("ProductPricingService initialized with base URL: {}, options: {}", this.baseUrl, options);
+    }
+
+    private BodyFormat<?> bodyFormat() {
+        if (options.streamingParse()) {
+            return options.compression()
+                    ? new BodyFormat<>(new ProductBodyHandler(decoder), Supplier::get)
+                    : STREAMING_BODY;
+        }
+        return new BodyFormat<>(options.compression() ? decoder.ofString() : HttpResponse.BodyHandlers.ofString(),
+                this::readProduct);
+    }
+
+    private void registerCompressionCounters(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("cart.pricing.compression.responses", this,
+                        ProductPricingService::getCompressedResponseCount)
+                .description("Gzip or deflate pricing response bodies decoded")
+                .register(meterRegistry);
+        FunctionCounter.builder("cart.pricing.compression.received", this,
+                        ProductPricingService::getCompressedBytesReceived)
+                .description("Compressed pricing response body bytes read off the wire")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("cart.pricing.compression.decoded", this, ProductPricingService::getDecompressedBytes)
+                .description("Bytes the compressed pricing response bodies decompressed to")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("cart.pricing.compression.saved", this, ProductPricingService::getCompressionBytesSaved)
+                .description("Pricing response body bytes compression kept off the wire")
+                .baseUnit("bytes")
+                .register(meterRegistry);
     }
 
+    private static Timer fetchTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("cart.pricing.fetch")
+                .description("Time to price one product, retries and hedges included")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
     public Try<Product> fetchProduct(String productName) {
         if (productName == null || productName.isBlank()) {
             log.error("Attempted to fetch product with null or blank name");
             return Try.failure(new ProductFetchException("Product name cannot be null or blank"));
         }
 
-        return Try.of(() -> {
-            String url = baseUrl + productName.toLowerCase(Locale.ROOT) + JSON_EXTENSION;
+        if (options.hedging().enabled()) {
+            return awaitHedged(productName).onFailure(ex -> logUnexpected(productName, ex));
+        }
+
+        long started = System.nanoTime();
+        Try<Product> product = Try.of(() -> {
+            String url = productUrl(productName);
             log.debug("Fetching product from URL: {}", url);
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
+            return sendWithRetries(productName, url, bodyFormat);
+        }).onFailure(ex -> logUnexpected(productName, ex));
+        recordFetch(started, product);
+        return product;
+    }
 
-            HttpResponse<String> response = httpClient.send(
-                    request,
-                    HttpResponse.BodyHandlers.ofString()
-            );
+    private Try<Product> awaitHedged(String productName) {
+        CompletableFuture<Try<Product>> result = fetchProductAsync(productName);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            return Try.failure(new ProductFetchException("Interrupted while fetching product: " + productName, e));
+        } catch (ExecutionException e) {
+            return Try.failure(e.getCause());
+        }
+    }
 
-            if (response.statusCode() != 200) {
-                log.error("Failed to fetch product: {}, status: {}, url: {}",
-                         productName, response.statusCode(), url);
-                throw new ProductFetchException(
-                        "Failed to fetch product: " + productName +
-                                ", status: " + response.statusCode() +
-                                ", url: " + url
-                );
+    /**
+     * Fetches several products concurrently with {@link HttpClient#sendAsync}, keeping at most
+     * {@code cart.pricing.max-in-flight} of these fetches outstanding across all callers at once.
+     * <p>
+     * Blocks until every fetch has completed and returns one {@link Try} per distinct name, in
+     * the order the names were given, so pricing a cart costs roughly one round-trip of latency.
+     * Names that differ only in case are fetched once and share the result.
+     */
+    @Override
+    public Map<String, Try<Product>> fetchProducts(Collection<String> productNames) {
+        if (productNames == null) {
+            throw new IllegalArgumentException("Product names cannot be null");
+        }
+
+        Map<String, CompletableFuture<Try<Product>>> byKey = new HashMap<>();
+        Map<String, CompletableFuture<Try<Product>>> pending = new LinkedHashMap<>();
+        for (String productName : productNames) {
+            if (pending.containsKey(productName)) {
+                continue;
+            }
+            if (productName == null || productName.isBlank()) {
+                pending.put(productName, CompletableFuture.completedFuture(fetchProduct(productName)));
+                continue;
+            }
+            CompletableFuture<Try<Product>> fetch = byKey.get(normalizeName(productName));
+            if (fetch == null) {
+                fetch = fetchWithPermit(productName);
+                byKey.put(normalizeName(productName), fetch);
             }
+            pending.put(productName, fetch);
+        }
 
-            Product product = parseProduct(response.body());
-            log.info("Successfully fetched product: {} with price: {}", product.name(), product.price());
-            return product;
-        }).onFailure(ex -> {
-            if (!(ex instanceof ProductFetchException)) {
-                log.error("Unexpected error fetching product: {}", productName, ex);
+        Map<String, Try<Product>> results = new LinkedHashMap<>();
+        pending.forEach((productName, future) -> results.put(productName, future.join()));
+        return Collections.unmodifiableMap(results);
+    }
+
+    private CompletableFuture<Try<Product>> fetchWithPermit(String productName) {
+        if (closed) {
+            // its response could never be parsed once the executor has shut down
+            return CompletableFuture.completedFuture(Try.failure(
+                    new ProductFetchException("Pricing service is closed, not fetching product: " + productName)));
+        }
+        try {
+            fetchPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(Try.failure(
+                    new ProductFetchException("Interrupted before fetching product: " + productName, e)));
+        }
+        CompletableFuture<Try<Product>> fetch = fetchProductAsync(productName);
+        asyncFetches.add(fetch);
+        return fetch.whenComplete((result, ex) -> {
+            asyncFetches.remove(fetch);
+            fetchPermits.release();
+        });
+    }
+
+    /**
+     * Waits for asynchronous fetches in flight, which parse and retry on the response executor,
+     * then shuts that executor down.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        CompletableFuture.allOf(asyncFetches.toArray(CompletableFuture[]::new)).handle((ignored, ex) -> null).join();
+        responseExecutor.close();
+    }
+
+    private CompletableFuture<Try<Product>> fetchProductAsync(String productName) {
+        String url = productUrl(productName);
+        log.debug("Fetching product asynchronously from URL: {}", url);
+
+        long started = System.nanoTime();
+        retryBudget.deposit(); // once per fetch, however many hedges it sends
+        return hedger.execute(() -> sendAsyncWithRetries(productName, url, bodyFormat), Try::isSuccess)
+                .thenApply(product -> product.onFailure(failure -> logUnexpected(productName, failure)))
+                .whenComplete((product, ex) ->
+                        recordFetch(started, product != null ? product : Try.failure(unwrap(ex))));
+    }
+
+    /**
+     * Records how long a fetch took and, if it failed, what it failed with.
+     */
+    private void recordFetch(long started, Try<Product> product) {
+        long elapsed = System.nanoTime() - started;
+        if (product.isSuccess()) {
+            fetchSucceeded.record(elapsed, TimeUnit.NANOSECONDS);
+            return;
+        }
+        fetchFailed.record(elapsed, TimeUnit.NANOSECONDS);
+        errorsByType.computeIfAbsent(product.getCause().getClass(), type -> Counter.builder("cart.pricing.fetch.errors")
+                        .description("Failed product fetches by exception type")
+                        .tag("exception", type.getSimpleName())
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private <T> Product sendWithRetries(String productName, String url, BodyFormat<T> format)
+            throws IOException, InterruptedException {
+        retryBudget.deposit();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return send(productName, url, format);
+            } catch (IOException | PricingStatusException e) {
+                if (!shouldRetry(e, attempt)) {
+                    throw e;
+                }
+                long backoff = backoffNanos(attempt);
+                log.debug("Retrying product {} in {} ms after attempt {} failed: {}",
+                        productName, TimeUnit.NANOSECONDS.toMillis(backoff), attempt, e.toString());
+                TimeUnit.NANOSECONDS.sleep(backoff);
+            }
+        }
+    }
+
+    private <T> CompletableFuture<Try<Product>> sendAsyncWithRetries(
+            String productName, String url, BodyFormat<T> format) {
+        CompletableFuture<Try<Product>> result = new CompletableFuture<>();
+        attemptAsync(productName, url, format, 1, result);
+        return result;
+    }
+
+    private <T> void attemptAsync(String productName, String url, BodyFormat<T> format, int attempt,
+                                  CompletableFuture<Try<Product>> result) {
+        if (result.isDone()) {
+            return; // abandoned while backing off
+        }
+
+        CompletableFuture<Try<Product>> current = sendAsync(productName, url, format);
+        result.whenComplete((ignored, ex) -> {
+            if (ex instanceof CancellationException) {
+                current.cancel(true);
             }
         });
+        current.thenAccept(outcome -> {
+            if (outcome.isSuccess() || !shouldRetry(outcome.getCause(), attempt)) {
+                result.complete(outcome);
+                return;
+            }
+            long backoff = backoffNanos(attempt);
+            log.debug("Retrying product {} in {} ms after attempt {} failed: {}",
+                    productName, TimeUnit.NANOSECONDS.toMillis(backoff), attempt, outcome.getCause().toString());
+            CompletableFuture.delayedExecutor(backoff, TimeUnit.NANOSECONDS, responseExecutor)
+                    .execute(() -> attemptAsync(productName, url, format, attempt + 1, result));
+        });
     }
 
-    private Product parseProduct(String jsonResponse) {
-        if (jsonResponse == null || jsonResponse.isBlank()) {
-            throw new ProductFetchException("Received empty response from pricing service");
+    /**
+     * Transport failures (timeouts included) and 5xx responses are retried while attempts and
+     * the retry budget last; anything else, including our own fail-fast rejections, is final.
+     */
+    private boolean shouldRetry(Throwable failure, int attempt) {
+        boolean retryable = failure instanceof IOException
+                || failure instanceof PricingStatusException status && status.getStatusCode() >= 500;
+        if (!retryable || attempt >= options.retrying().maxAttempts() || !retryBudget.tryWithdraw()) {
+            return false;
+        }
+        retries.increment();
+        return true;
+    }
+
+    /**
+     * Exponential backoff with full jitter, so retries from many callers spread out instead of arriving together.
+     */
+    private long backoffNanos(int attempt) {
+        PricingOptions.Retrying retrying = options.retrying();
+        long ceiling = Math.min(retrying.maxBackoff().toNanos(),
+                retrying.initialBackoff().toNanos() << Math.min(attempt - 1, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private <T> Product send(String productName, String url, BodyFormat<T> format)
+            throws IOException, InterruptedException {
+        Option<DiskPriceStore.Entry> stored = diskStore.get(normalizeName(productName));
+        long started = admit();
+        PricingFetchEvent event = PricingFetchEvent.start();
+        DeadlineBodyHandler<T> handler = handler(format, event);
+        HttpResponse<T> response;
+        try {
+            response = httpClient.send(buildRequest(url, stored), handler);
+        } catch (IOException e) {
+            // send() reports a body that failed to decode as an IOException, but the exchange
+            // itself worked: it is a bad payload, not a transport failure to retry
+            Throwable failure = e.getCause() instanceof ProductFetchException payload ? payload : e;
+            settle(started, null, failure);
+            commit(event, productName, url, null, stored);
+            if (failure instanceof ProductFetchException payload) {
+                throw payload;
+            }
+            throw e;
+        } catch (InterruptedException | RuntimeException e) {
+            settle(started, null, e);
+            commit(event, productName, url, null, stored);
+            throw e;
+        }
+        settle(started, response, null);
+        try {
+            return toProduct(productName, url, response, format, handler, stored);
+        } finally {
+            commit(event, productName, url, response, stored);
+        }
+    }
+
+    private <T> CompletableFuture<Try<Product>> sendAsync(String productName, String url, BodyFormat<T> format) {
+        Option<DiskPriceStore.Entry> stored = diskStore.get(normalizeName(productName));
+        long started;
+        try {
+            started = admit();
+        } catch (ProductFetchException e) {
+            log.debug("Pricing request for product {} not sent: {}", productName, e.getMessage());
+            return CompletableFuture.completedFuture(Try.failure(e));
+        }
+
+        PricingFetchEvent event = PricingFetchEvent.start();
+        DeadlineBodyHandler<T> handler = handler(format, event);
+        CompletableFuture<HttpResponse<T>> response;
+        try {
+            response = httpClient.sendAsync(buildRequest(url, stored), handler);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
         }
+        response.whenComplete((result, ex) -> settle(started, result, unwrap(ex)));
+        // a streaming response completes at the headers and its reader then blocks on the body,
+        // so parse on a virtual thread: not the client's executor, which delivers that body, nor
+        // the common pool, which the caches' maintenance shares
+        CompletableFuture<HttpResponse<T>> exchange = response;
+        CompletableFuture<Try<Product>> product = exchange.handleAsync((result, ex) -> {
+            Try<Product> outcome = ex == null
+                    ? Try.of(() -> toProduct(productName, url, result, format, handler, stored))
+                    : Try.failure(unwrap(ex));
+            commit(event, productName, url, result, stored);
+            return outcome;
+        }, responseExecutor);
+        // abandoning the product (e.g. a losing hedge) aborts the HTTP exchange too
+        product.whenComplete((result, ex) -> {
+            if (ex instanceof CancellationException) {
+                exchange.cancel(true);
+            }
+        });
+        return product;
+    }
 
+    /**
+     * Bounds the exchange, body included, by the request timeout, and counts the body bytes
+     * into {@code event} as well while a recording wants it.
+     */
+    private <T> DeadlineBodyHandler<T> handler(BodyFormat<T> format, PricingFetchEvent event) {
+        return new DeadlineBodyHandler<>(event.isEnabled()
+                ? new CountingBodyHandler<>(format.handler(), bytes -> event.bytes = bytes)
+                : format.handler(), options.requestTimeout());
+    }
+
+    private static void commit(PricingFetchEvent event, String productName, String url, HttpResponse<?> response,
+                               Option<DiskPriceStore.Entry> stored) {
+        int status = response == null ? 0 : response.statusCode();
+        event.exchanged(productName, url, status, status == 304 && stored.isDefined()
+                ? PricingFetchEvent.REVALIDATED
+                : PricingFetchEvent.MISS);
+    }
+
+    /**
+     * Gets past the circuit breaker and the concurrency limit, returning the limiter's start time.
+     */
+    private long admit() {
+        breaker.acquirePermission();
         try {
-            JsonObject jsonObject = JsonParser.parseString(jsonResponse)
-                    .getAsJsonObject();
+            return limiter.acquire();
+        } catch (PricingOverloadException e) {
+            breaker.onIgnored();
+            throw e;
+        }
+    }
+
+    /**
+     * Reports how an admitted exchange ended: a transport failure or 5xx counts against the
+     * circuit, while only a transport failure or an explicit overload status backs off the limit.
+     */
+    private void settle(long started, HttpResponse<?> response, Throwable failure) {
+        if (response != null) {
+            int status = response.statusCode();
+            responsesByStatus.computeIfAbsent(status, code -> Counter.builder("cart.pricing.responses")
+                            .description("Pricing responses received by HTTP status")
+                            .tag("status", Integer.toString(code))
+                            .register(meterRegistry))
+                    .increment();
+            limiter.release(started, status == 429 || status == 503
+                    ? AdaptiveConcurrencyLimiter.Outcome.DROPPED
+                    : AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+            if (status >= 500) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        } else if (failure instanceof IOException) {
+            limiter.release(started, AdaptiveConcurrencyLimiter.Outcome.DROPPED);
+            breaker.onFailure();
+        } else {
+            limiter.release(started, AdaptiveConcurrencyLimiter.Outcome.IGNORED);
+            breaker.onIgnored();
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    /**
+     * Lower-cases a product name the way it appears in the pricing URL; also used as the cache key.
+     */
+    public static String normalizeName(String productName) {
+        return productName.toLowerCase(Locale.ROOT);
+    }
 
-            String title = jsonObject.get(TITLE).getAsString();
-            double price = jsonObject.get(PRICE).getAsDouble();
+    private String productUrl(String productName) {
+        return baseUrl + normalizeName(productName) + JSON_EXTENSION;
+    }
+
+    /**
+     * Makes the request conditional on the validators of a stored response, if there is one,
+     * so an unchanged product comes back as an empty 304.
+     */
+    private HttpRequest buildRequest(String url, Option<DiskPriceStore.Entry> stored) {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(options.requestTimeout())
+                .GET();
+        if (options.compression()) {
+            request.header("Accept-Encoding", ContentDecoder.ACCEPT_ENCODING);
+        }
+        stored.forEach(entry -> {
+            if (entry.etag() != null) {
+                request.header("If-None-Match", entry.etag());
+            }
+            if (entry.lastModified() != null) {
+                request.header("If-Modified-Since", entry.lastModified());
+            }
+        });
+        return request.build();
+    }
+
+    private <T> Product toProduct(String productName, String url, HttpResponse<T> response, BodyFormat<T> format,
+                                  DeadlineBodyHandler<T> handler, Option<DiskPriceStore.Entry> stored)
+            throws HttpTimeoutException {
+        if (response.statusCode() == 304 && stored.isDefined()) {
+            notModified.increment();
+            log.debug("Product {} not modified, using stored price", productName);
+            return stored.get().product();
+        }
+        if (response.statusCode() != 200) {
+            if (log.isErrorEnabled() && statusLog.shouldLog()) {
+                log.error("Failed to fetch product: {}, status: {}, url: {} ({} similar skipped)",
+                        productName, response.statusCode(), url, statusLog.takeSkipped());
+            }
+            throw new PricingStatusException(
+                    "Failed to fetch product: " + productName +
+                            ", status: " + response.statusCode() +
+                            ", url: " + url,
+                    response.statusCode()
+            );
+        }
+
+        Product product;
+        try {
+            product = format.reader().apply(response.body());
+        } catch (ProductFetchException e) {
+            if (handler.expired()) {
+                throw handler.timeoutException(); // a stalled body is retried like a stalled header
+            }
+            throw e;
+        }
+        if (diskStore.isEnabled()) {
+            diskStore.put(normalizeName(productName), new DiskPriceStore.Entry(product,
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null)));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Successfully fetched product: {} with price: {}", product.name(), product.price());
+        }
+        return product;
+    }
 
-            return new Product(title, price);
-        } catch (Exception e) {
-            log.error("Failed to parse product JSON: {}", jsonResponse, e);
-            throw new ProductFetchException("Failed to parse product JSON", e);
+    private void logUnexpected(String productName, Throwable ex) {
+        if (!(ex instanceof ProductFetchException) && log.isErrorEnabled() && unexpectedLog.shouldLog()) {
+            log.error("Unexpected error fetching product: {} ({} similar skipped)",
+                    productName, unexpectedLog.takeSkipped(), ex);
         }
     }
+
+    /**
+     * {@link #parseProduct}, logging a failure with its payload cut to {@code maxPayloadChars}.
+     */
+    Product readProduct(String jsonResponse) {
+        try {
+            return parseProduct(jsonResponse);
+        } catch (ProductFetchException e) {
+            if (log.isErrorEnabled() && parseLog.shouldLog()) {
+                log.error("Failed to parse product JSON: {} ({} similar skipped)",
+                        LogSampler.truncate(jsonResponse, options.logging().maxPayloadChars()),
+                        parseLog.takeSkipped(), e);
+            }
+            throw e;
+        }
+    }
+
+    static Product parseProduct(String jsonResponse) {
+        if (jsonResponse == null || jsonResponse.isBlank()) {
+            throw new ProductFetchException("Received empty response from pricing service");
+        }
+
+        return ProductJsonParser.parse(new StringReader(jsonResponse));
+    }
+
+    /**
+     * Number of duplicate requests sent because the original was slower than the hedge delay.
+     */
+    public long getHedgesFired() {
+        return hedger.firedCount();
+    }
+
+    /**
+     * Number of hedges whose response arrived before the original's.
+     */
+    public long getHedgesWon() {
+        return hedger.wonCount();
+    }
+
+    /**
+     * Current cap on pricing requests in flight, as adapted to the pricing host's responses.
+     */
+    public int getConcurrencyLimit() {
+        return limiter.limit();
+    }
+
+    public int getInFlightCount() {
+        return limiter.inFlight();
+    }
+
+    /**
+     * Number of requests rejected with {@link PricingOverloadException} because the limit was in use.
+     */
+    public long getShedCount() {
+        return limiter.shedCount();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return breaker.state();
+    }
+
+    /**
+     * Number of requests failed fast with {@link PricingCircuitOpenException} instead of being sent.
+     */
+    public long getCircuitRejectedCount() {
+        return breaker.rejectedCount();
+    }
+
+    /**
+     * Number of retries sent after a transport failure, timeout or 5xx response.
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Number of products revalidated with a 304 and served from the disk store.
+     */
+    public long getNotModifiedCount() {
+        return notModified.sum();
+    }
+
+    /**
+     * Number of gzip or deflate response bodies decoded.
+     */
+    public long getCompressedResponseCount() {
+        return decoder.decodedResponseCount();
+    }
+
+    /**
+     * Compressed body bytes read off the wire.
+     */
+    public long getCompressedBytesReceived() {
+        return decoder.encodedByteCount();
+    }
+
+    /**
+     * Bytes the compressed bodies decompressed to.
+     */
+    public long getDecompressedBytes() {
+        return decoder.decodedByteCount();
+    }
+
+    /**
+     * Body bytes compression kept off the wire, counting only what the parser read.
+     */
+    public long getCompressionBytesSaved() {
+        // a body part-way through being read can briefly have more bytes in than out
+        return Math.max(0, decoder.decodedByteCount() - decoder.encodedByteCount());
+    }
 }
\ No newline at end of file
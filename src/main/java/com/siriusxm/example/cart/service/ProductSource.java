@@ -0,0 +1,20 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Try;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Something that can price products by name.
+ */
+public interface ProductSource {
+
+    Try<Product> fetchProduct(String productName);
+
+    /**
+     * Prices several products, returning one {@link Try} per distinct name in the order given.
+     */
+    Map<String, Try<Product>> fetchProducts(Collection<String> productNames);
+}
@@ -0,0 +1,152 @@
+package com.siriusxm.example.cart.service;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Sends a duplicate of a request that is taking longer than most recent ones did, and
+ * takes whichever copy succeeds first.
+ * <p>
+ * The hedge delay is the configured percentile of the last {@value #WINDOW} successful
+ * latencies, but never below the minimum delay; nothing is hedged until
+ * {@value #MIN_SAMPLES} latencies have been seen. Each request earns {@code maxRate}
+ * of a hedge and each hedge spends a whole one, so over time at most that fraction of
+ * requests is duplicated, with short bursts of up to {@value #MAX_BURST} hedges.
+ * When one copy succeeds the other is cancelled; if the first to finish fails, the
+ * result is whatever the other copy returns. Hedges are sent from the given executor.
+ */
+class RequestHedger {
+
+    static final int WINDOW = 1024;
+    static final int MIN_SAMPLES = 32;
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final double MAX_BURST = 10;
+
+    private final PricingOptions.Hedging settings;
+    private final long minDelayNanos;
+    private final Executor executor;
+
+    private final long[] latencies = new long[WINDOW];
+    private long samples;
+    private volatile long delayNanos = -1; // no hedging until warmed up
+
+    private final TokenBudget budget;
+
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder won = new LongAdder();
+
+    RequestHedger(PricingOptions.Hedging settings, Executor executor) {
+        this.settings = settings;
+        this.executor = executor;
+        this.minDelayNanos = settings.minDelay().toNanos();
+        this.budget = new TokenBudget(settings.maxRate(), MAX_BURST, 0);
+    }
+
+    /**
+     * Runs {@code attempt}, and runs it again if the first call is slow and the hedge budget allows.
+     */
+    <V> CompletableFuture<V> execute(Supplier<CompletableFuture<V>> attempt, Predicate<V> isSuccess) {
+        if (!settings.enabled()) {
+            return attempt.get();
+        }
+
+        budget.deposit();
+        long delay = delayNanos;
+        long start = System.nanoTime();
+        CompletableFuture<V> primary = attempt.get();
+        primary.thenAccept(value -> {
+            if (isSuccess.test(value)) {
+                record(System.nanoTime() - start);
+            }
+        });
+        if (delay < 0) {
+            return primary;
+        }
+
+        CompletableFuture<V> result = new CompletableFuture<>();
+        AtomicInteger running = new AtomicInteger(1);
+        AtomicReference<CompletableFuture<V>> hedge = new AtomicReference<>();
+
+        primary.whenComplete((value, ex) -> settle(result, value, ex, isSuccess, running, hedge.get(), false));
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, executor).execute(() -> {
+            // a finished primary leaves nothing running, so no hedge is started after it
+            if (result.isDone() || !budget.tryWithdraw() || running.getAndUpdate(n -> n == 0 ? 0 : n + 1) == 0) {
+                return;
+            }
+            fired.increment();
+            CompletableFuture<V> duplicate = attempt.get();
+            hedge.set(duplicate);
+            duplicate.whenComplete((value, ex) -> settle(result, value, ex, isSuccess, running, primary, true));
+            if (result.isDone()) {
+                duplicate.cancel(true);
+            }
+        });
+        result.whenComplete((value, ex) -> {
+            if (ex instanceof CancellationException) {
+                primary.cancel(true);
+                CompletableFuture<V> duplicate = hedge.get();
+                if (duplicate != null) {
+                    duplicate.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    private <V> void settle(CompletableFuture<V> result, V value, Throwable ex, Predicate<V> isSuccess,
+                            AtomicInteger running, CompletableFuture<V> other, boolean isHedge) {
+        boolean last = running.decrementAndGet() == 0;
+        if (ex == null && isSuccess.test(value)) {
+            if (isHedge) {
+                won.increment(); // counted before the result is visible to the caller
+            }
+            if (result.complete(value)) {
+                if (other != null) {
+                    other.cancel(true);
+                }
+            } else if (isHedge) {
+                won.decrement();
+            }
+        } else if (last) {
+            if (ex == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private synchronized void record(long latencyNanos) {
+        latencies[(int) (samples % WINDOW)] = latencyNanos;
+        samples++;
+        if (samples == MIN_SAMPLES || samples % RECOMPUTE_EVERY == 0) {
+            long[] window = Arrays.copyOf(latencies, (int) Math.min(samples, WINDOW));
+            Arrays.sort(window);
+            int rank = (int) Math.ceil(settings.percentile() / 100 * window.length) - 1;
+            delayNanos = Math.max(minDelayNanos, window[Math.max(rank, 0)]);
+        }
+    }
+
+    /**
+     * Current hedge delay in nanoseconds, or -1 while there are too few samples to hedge.
+     */
+    long delayNanos() {
+        return delayNanos;
+    }
+
+    long firedCount() {
+        return fired.sum();
+    }
+
+    long wonCount() {
+        return won.sum();
+    }
+}
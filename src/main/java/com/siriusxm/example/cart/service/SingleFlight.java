@@ -0,0 +1,93 @@
+package com.siriusxm.example.cart.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key so that only one of them does the work.
+ * <p>
+ * The first caller for a key becomes the leader and runs the call; callers that arrive
+ * while it is in flight wait for and share the leader's result, including a failed one.
+ * Once the result is published the key is released, so a later call runs afresh. A waiting
+ * caller that is interrupted stops waiting and gets the value {@code interrupted} maps the
+ * interrupt to, with its interrupt status set again.
+ */
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Function<InterruptedException, V> interrupted;
+
+    SingleFlight(Function<InterruptedException, V> interrupted) {
+        this.interrupted = interrupted;
+    }
+
+    /**
+     * A claim on a key: either the leader's own pending result or a follower's view of it.
+     */
+    record Flight<V>(CompletableFuture<V> result, boolean leader) {
+    }
+
+    V execute(K key, Supplier<V> call) {
+        Flight<V> flight = join(key);
+        if (!flight.leader()) {
+            return await(flight.result());
+        }
+
+        try {
+            V value = call.get();
+            complete(key, flight, value);
+            return value;
+        } catch (Throwable t) { // includes an InterruptedException rethrown by vavr's Try
+            fail(key, flight, t);
+            throw t;
+        }
+    }
+
+    /**
+     * Claims {@code key}. A leader must later pass its flight to {@link #complete} or {@link #fail}.
+     */
+    Flight<V> join(K key) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        return existing == null ? new Flight<>(mine, true) : new Flight<>(existing, false);
+    }
+
+    void complete(K key, Flight<V> flight, V value) {
+        inFlight.remove(key, flight.result());
+        flight.result().complete(value);
+    }
+
+    /**
+     * Releases {@code key} with {@code failure} for anyone waiting, unless the flight has already completed.
+     */
+    void fail(K key, Flight<V> flight, Throwable failure) {
+        inFlight.remove(key, flight.result());
+        flight.result().completeExceptionally(failure);
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Waits for another caller's {@code result}, giving up if this thread is interrupted.
+     */
+    V await(CompletableFuture<V> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return interrupted.apply(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+}
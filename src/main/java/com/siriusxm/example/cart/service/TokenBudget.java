@@ -0,0 +1,36 @@
+package com.siriusxm.example.cart.service;
+
+/**
+ * Token bucket that is refilled by traffic rather than by time: each request deposits
+ * a fraction of a token and each extra request (a retry or a hedge) withdraws a whole
+ * one. Over time extra requests therefore stay within that fraction of real ones, with
+ * bursts of up to {@code capacity}.
+ */
+final class TokenBudget {
+
+    private final double perRequest;
+    private final double capacity;
+    private double tokens;
+
+    TokenBudget(double perRequest, double capacity, double initialTokens) {
+        this.perRequest = perRequest;
+        this.capacity = capacity;
+        this.tokens = Math.min(capacity, initialTokens);
+    }
+
+    synchronized void deposit() {
+        tokens = Math.min(capacity, tokens + perRequest);
+    }
+
+    synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    synchronized double tokens() {
+        return tokens;
+    }
+}
@@ -0,0 +1,107 @@
+package com.siriusxm.example.cart.model;
+
+import com.siriusxm.example.cart.service.CartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartBuilderTest {
+
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        cartService = new CartService("0.125");
+    }
+
+    private static List<CartItem> sampleItems(int count) {
+        Product[] products = {
+                new Product("Cheerios", 8.43),
+                new Product("Corn Flakes", 2.52),
+                new Product("Frosties", 4.99),
+                new Product("Shreddies", 4.68),
+                new Product("Weetabix", 9.98)
+        };
+        List<CartItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new CartItem(products[i % products.length], i % 7 + 1));
+        }
+        return items;
+    }
+
+    @Test
+    void testAddItemsMatchesRepeatedAddItem() {
+        List<CartItem> items = sampleItems(5_000);
+
+        Cart incremental = new Cart();
+        for (CartItem item : items) {
+            incremental = cartService.addItem(incremental, item);
+        }
+        Cart batched = cartService.addItems(new Cart(), items);
+
+        assertEquals(incremental, batched);
+        assertEquals(incremental.getItems(), batched.getItems());
+        assertEquals(cartService.calculateTotals(incremental), cartService.calculateTotals(batched));
+    }
+
+    @Test
+    void testAddItemsAppendsToExistingCart() {
+        List<CartItem> items = sampleItems(10);
+
+        Cart cart = cartService.addItems(new Cart(), items.subList(0, 4));
+        Cart extended = cartService.addItems(cart, items.subList(4, 10));
+
+        assertEquals(4, cart.getItemCount());
+        assertEquals(items, extended.getItems());
+    }
+
+    @Test
+    void testAddItemsWithEmptyCollectionReturnsEquivalentCart() {
+        Cart cart = cartService.addItems(new Cart(), sampleItems(3));
+
+        Cart unchanged = cartService.addItems(cart, List.of());
+
+        assertEquals(cart, unchanged);
+    }
+
+    @Test
+    void testBuilderMatchesRepeatedAddItem() {
+        List<CartItem> items = sampleItems(100);
+
+        Cart.Builder builder = Cart.builder();
+        Cart incremental = new Cart();
+        for (CartItem item : items) {
+            builder.add(item);
+            incremental = cartService.addItem(incremental, item);
+        }
+
+        assertEquals(incremental, builder.build());
+    }
+
+    @Test
+    void testBuilderDoesNotAffectSeedCart() {
+        Cart seed = cartService.addItems(new Cart(), sampleItems(2));
+
+        Cart built = seed.toBuilder().addAll(sampleItems(3)).build();
+
+        assertEquals(2, seed.getItemCount());
+        assertEquals(5, built.getItemCount());
+    }
+
+    @Test
+    void testAddItemsNullArgumentsThrowException() {
+        Cart cart = new Cart();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cartService.addItems(null, sampleItems(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> cartService.addItems(cart, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> cartService.addItems(cart, Arrays.asList(sampleItems(1).get(0), null)));
+    }
+}
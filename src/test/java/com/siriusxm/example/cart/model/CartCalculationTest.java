@@ -1,6 +1,7 @@
 package com.siriusxm.example.cart.model;
 
 import com.siriusxm.example.cart.service.CartService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -122,6 +123,21 @@ class CartCalculationTest {
                 () -> new Product("Test", -1.0));
     }
 
+    @Test
+    void testCalculateTotalsIsTimedWithCartSize() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CartService metered = new CartService("0.125", registry);
+        Cart cart = metered.addItem(new Cart(), new CartItem(new Product("Test 1", 1.00), 1));
+        cart = metered.addItem(cart, new CartItem(new Product("Test 2", 2.00), 4));
+
+        metered.calculateTotals(cart);
+        metered.calculateTotals(new Cart());
+
+        assertEquals(2, registry.get("cart.totals").timer().count());
+        assertEquals(2, registry.get("cart.size").summary().count());
+        assertEquals(2, registry.get("cart.size").summary().totalAmount(), 0.0);
+    }
+
     @Test
     void testCartItemValidation() {
         Product product = new Product("Test", 10.0);
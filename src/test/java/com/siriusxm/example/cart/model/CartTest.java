@@ -4,6 +4,9 @@ import com.siriusxm.example.cart.service.CartService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class CartTest {
@@ -103,4 +106,63 @@ class CartTest {
         assertThrows(IllegalArgumentException.class,
                 () -> cartService.calculateTotals(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAddPreservesInsertionOrder() {
+        Product cheerios = new Product("Cheerios", 8.43);
+        Product frosties = new Product("Frosties", 4.99);
+
+        Cart cart = new Cart();
+        cart = cartService.addItem(cart, new CartItem(cheerios, 1));
+        cart = cartService.addItem(cart, new CartItem(frosties, 2));
+
+        assertEquals(List.of(new CartItem(cheerios, 1), new CartItem(frosties, 2)), cart.getItems());
+    }
+
+    @Test
+    void testEarlierVersionsUnaffectedByLaterAdds() {
+        Product product = new Product("Weetabix", 9.98);
+
+        Cart cart = new Cart();
+        List<Cart> versions = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            cart = cartService.addItem(cart, new CartItem(product, i));
+            versions.add(cart);
+        }
+
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(i + 1, versions.get(i).getItemCount());
+            assertEquals(i + 1, versions.get(i).getItems().get(i).quantity());
+        }
+    }
+
+    @Test
+    void testLargeCartBuiltIncrementally() {
+        Product product = new Product("Shreddies", 3.0);
+
+        Cart cart = new Cart();
+        for (int i = 0; i < 10_000; i++) {
+            cart = cartService.addItem(cart, new CartItem(product, 1));
+        }
+
+        assertEquals(10_000, cart.getItemCount());
+        assertEquals(30_000.0, cartService.calculateSubtotal(cart), 0.01);
+    }
+
+    @Test
+    void testItemsAreUnmodifiable() {
+        Product product = new Product("Frosties", 4.99);
+        Cart cart = cartService.addItem(new Cart(), new CartItem(product, 1));
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> cart.getItems().add(new CartItem(product, 1)));
+    }
+
+    @Test
+    void testConstructorRejectsNullItems() {
+        List<CartItem> items = new ArrayList<>();
+        items.add(null);
+
+        assertThrows(NullPointerException.class, () -> new Cart(items));
+    }
+}
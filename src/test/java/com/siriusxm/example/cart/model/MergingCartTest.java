@@ -0,0 +1,167 @@
+package com.siriusxm.example.cart.model;
+
+import com.siriusxm.example.cart.service.CartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MergingCartTest {
+
+    private final Product cornflakes = new Product("Corn Flakes", 2.52);
+    private final Product weetabix = new Product("Weetabix", 9.98);
+    private final Product frosties = new Product("Frosties", 4.99);
+
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        cartService = new CartService("0.125");
+    }
+
+    @Test
+    void testAddingSameProductMergesQuantities() {
+        Cart cart = Cart.merging();
+        cart = cartService.addItem(cart, new CartItem(cornflakes, 1));
+        cart = cartService.addItem(cart, new CartItem(weetabix, 1));
+        cart = cartService.addItem(cart, new CartItem(cornflakes, 1));
+
+        assertEquals(2, cart.getItemCount());
+        assertEquals(List.of(new CartItem(cornflakes, 2), new CartItem(weetabix, 1)), cart.getItems());
+    }
+
+    @Test
+    void testSampleCalculationWithMergedLines() {
+        Cart cart = Cart.merging();
+        cart = cartService.addItem(cart, new CartItem(cornflakes, 1));
+        cart = cartService.addItem(cart, new CartItem(cornflakes, 1));
+        cart = cartService.addItem(cart, new CartItem(weetabix, 1));
+
+        CartTotals totals = cartService.calculateTotals(cart);
+
+        assertEquals(15.02, totals.subtotal(), 0.001);
+        assertEquals(1.88, totals.tax(), 0.001);
+        assertEquals(16.90, totals.total(), 0.001);
+    }
+
+    @Test
+    void testFindByProductName() {
+        Cart cart = cartService.addItem(Cart.merging(), new CartItem(frosties, 3));
+
+        assertEquals(new CartItem(frosties, 3), cart.find("Frosties").get());
+        assertTrue(cart.find("Cheerios").isEmpty());
+    }
+
+    @Test
+    void testUpdateQuantity() {
+        Cart cart = Cart.merging();
+        cart = cartService.addItem(cart, new CartItem(cornflakes, 1));
+        cart = cartService.addItem(cart, new CartItem(weetabix, 1));
+
+        Cart updated = cartService.updateQuantity(cart, "Corn Flakes", 5);
+
+        assertEquals(List.of(new CartItem(cornflakes, 5), new CartItem(weetabix, 1)), updated.getItems());
+        assertEquals(1, cart.find("Corn Flakes").get().quantity());
+    }
+
+    @Test
+    void testUpdateQuantityOfMissingProductThrowsException() {
+        Cart cart = Cart.merging();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cartService.updateQuantity(cart, "Cheerios", 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> cartService.updateQuantity(cartService.addItem(cart, new CartItem(frosties, 1)), "Frosties", 0));
+    }
+
+    @Test
+    void testRemoveKeepsInsertionOrderOfRemainingLines() {
+        Cart cart = Cart.merging();
+        cart = cartService.addItem(cart, new CartItem(cornflakes, 1));
+        cart = cartService.addItem(cart, new CartItem(weetabix, 1));
+        cart = cartService.addItem(cart, new CartItem(frosties, 1));
+
+        Cart removed = cartService.removeItem(cart, "Weetabix");
+
+        assertEquals(2, removed.getItemCount());
+        assertEquals(List.of(new CartItem(cornflakes, 1), new CartItem(frosties, 1)), removed.getItems());
+        assertTrue(removed.find("Weetabix").isEmpty());
+        assertEquals(3, cart.getItemCount());
+    }
+
+    @Test
+    void testRemoveThenAddAppendsNewLine() {
+        Cart cart = Cart.merging();
+        cart = cartService.addItem(cart, new CartItem(cornflakes, 1));
+        cart = cartService.addItem(cart, new CartItem(weetabix, 1));
+        cart = cartService.removeItem(cart, "Corn Flakes");
+        cart = cartService.addItem(cart, new CartItem(cornflakes, 4));
+
+        assertEquals(List.of(new CartItem(weetabix, 1), new CartItem(cornflakes, 4)), cart.getItems());
+    }
+
+    @Test
+    void testRemoveMissingProductReturnsSameCart() {
+        Cart cart = cartService.addItem(Cart.merging(), new CartItem(frosties, 1));
+
+        assertSame(cart, cartService.removeItem(cart, "Cheerios"));
+    }
+
+    @Test
+    void testManyRemovalsCompactAndKeepIndexConsistent() {
+        Cart cart = Cart.merging();
+        for (int i = 0; i < 1_000; i++) {
+            cart = cartService.addItem(cart, new CartItem(new Product("Product " + i, 1.00), 1));
+        }
+        for (int i = 0; i < 1_000; i += 2) {
+            cart = cartService.removeItem(cart, "Product " + i);
+        }
+
+        assertEquals(500, cart.getItemCount());
+        for (int i = 1; i < 1_000; i += 2) {
+            assertEquals("Product " + i, cart.find("Product " + i).get().product().name());
+        }
+        cart = cartService.updateQuantity(cart, "Product 999", 7);
+        assertEquals(7, cart.getItems().get(499).quantity());
+    }
+
+    @Test
+    void testBuilderMergesBatchIntoSeedCart() {
+        Cart seed = cartService.addItem(Cart.merging(), new CartItem(cornflakes, 1));
+
+        Cart cart = cartService.addItems(seed, List.of(
+                new CartItem(weetabix, 1),
+                new CartItem(cornflakes, 2),
+                new CartItem(weetabix, 3)));
+
+        assertTrue(cart.isMerging());
+        assertEquals(List.of(new CartItem(cornflakes, 3), new CartItem(weetabix, 4)), cart.getItems());
+    }
+
+    @Test
+    void testBatchMatchesRepeatedAddItem() {
+        List<CartItem> items = List.of(
+                new CartItem(cornflakes, 1),
+                new CartItem(weetabix, 2),
+                new CartItem(cornflakes, 3),
+                new CartItem(frosties, 1));
+
+        Cart incremental = Cart.merging();
+        for (CartItem item : items) {
+            incremental = cartService.addItem(incremental, item);
+        }
+
+        assertEquals(incremental, cartService.addItems(Cart.merging(), items));
+    }
+
+    @Test
+    void testProductOperationsRequireMergingCart() {
+        Cart cart = new Cart();
+
+        assertFalse(cart.isMerging());
+        assertThrows(IllegalStateException.class, () -> cart.find("Frosties"));
+        assertThrows(IllegalStateException.class, () -> cartService.removeItem(cart, "Frosties"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.siriusxm.example.cart.model;
+
+import com.siriusxm.example.cart.service.CartService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testOfDoubleRoundsToNearestMicro() {
+        assertEquals(2_520_000L, Money.ofDouble(2.52));
+        assertEquals(8_430_000L, Money.ofDouble(8.43));
+        assertEquals(10_004_000L, Money.ofDouble(10.004));
+        assertEquals(0L, Money.ofDouble(0.0));
+    }
+
+    @Test
+    void testOfDoubleRejectsOutOfRangeAmounts() {
+        assertThrows(ArithmeticException.class, () -> Money.ofDouble(1e12));
+        assertThrows(ArithmeticException.class, () -> Money.ofDouble(Double.NaN));
+        assertThrows(ArithmeticException.class, () -> Money.ofDouble(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void testCeilToCents() {
+        assertEquals(1502L, Money.ceilToCents(15_020_000L));
+        assertEquals(1503L, Money.ceilToCents(15_020_001L));
+        assertEquals(1001L, Money.ceilToCents(10_004_000L));
+        assertEquals(0L, Money.ceilToCents(0L));
+    }
+
+    @Test
+    void testApplyRateRoundsUp() {
+        long rate = Money.rateOf(new BigDecimal("0.125"));
+
+        assertEquals(125_000_000L, rate);
+        assertEquals(188L, Money.applyRate(1502L, rate));   // 187.75
+        assertEquals(1250L, Money.applyRate(10_000L, rate)); // exact
+        assertEquals(126L, Money.applyRate(1001L, rate));   // 125.125
+    }
+
+    @Test
+    void testApplyRateMatchesBigDecimalCeiling() {
+        BigDecimal rate = new BigDecimal("0.0875");
+        long ratePpb = Money.rateOf(rate);
+
+        for (long cents = 0; cents < 20_000; cents += 7) {
+            long expected = BigDecimal.valueOf(cents, 2).multiply(rate)
+                    .setScale(2, RoundingMode.CEILING)
+                    .unscaledValue().longValueExact();
+            assertEquals(expected, Money.applyRate(cents, ratePpb), "cents=" + cents);
+        }
+    }
+
+    @Test
+    void testApplyRateBeyondSixtyFourBitProduct() {
+        long cents = Long.MAX_VALUE / 10;
+        long ratePpb = Money.rateOf(new BigDecimal("0.5"));
+
+        long expected = BigDecimal.valueOf(cents).multiply(new BigDecimal("0.5"))
+                .setScale(0, RoundingMode.CEILING).longValueExact();
+        assertEquals(expected, Money.applyRate(cents, ratePpb));
+    }
+
+    @Test
+    void testRateWithTooManyDecimalPlacesIsRejected() {
+        assertThrows(ArithmeticException.class, () -> Money.rateOf(new BigDecimal("0.1234567891")));
+        assertThrows(IllegalArgumentException.class, () -> new CartService("0.1234567891"));
+    }
+
+    @Test
+    void testReadmeSample() {
+        CartService cartService = new CartService("0.125");
+        Cart cart = new Cart();
+        cart = cartService.addItem(cart, new CartItem(new Product("Corn Flakes", 2.52), 2));
+        cart = cartService.addItem(cart, new CartItem(new Product("Weetabix", 9.98), 1));
+
+        CartTotals totals = cartService.calculateTotals(cart);
+
+        assertEquals(new CartTotals(15.02, 1.88, 16.90), totals);
+    }
+}
@@ -0,0 +1,122 @@
+package com.siriusxm.example.cart.model;
+
+import com.siriusxm.example.cart.service.CartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunningTotalsTest {
+
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.125");
+
+    private final Product[] products = {
+            new Product("Cheerios", 8.43),
+            new Product("Corn Flakes", 2.52),
+            new Product("Frosties", 4.99),
+            new Product("Shreddies", 4.68),
+            new Product("Weetabix", 9.98),
+            new Product("Granola", 10.004),
+            new Product("Muesli", 15.021)
+    };
+
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        cartService = new CartService("0.125");
+    }
+
+    /**
+     * Full recomputation over every line, as calculateTotals used to do.
+     */
+    private static CartTotals recompute(Cart cart) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (CartItem item : cart.getItems()) {
+            subtotal = subtotal.add(BigDecimal.valueOf(item.product().price())
+                    .multiply(BigDecimal.valueOf(item.quantity())));
+        }
+        subtotal = subtotal.setScale(2, RoundingMode.CEILING);
+        BigDecimal tax = subtotal.multiply(TAX_RATE).setScale(2, RoundingMode.CEILING);
+        return new CartTotals(subtotal.doubleValue(), tax.doubleValue(), subtotal.add(tax).doubleValue());
+    }
+
+    private void assertMatchesRecomputation(Cart cart) {
+        long expectedMicros = 0L;
+        for (CartItem item : cart.getItems()) {
+            expectedMicros += item.lineTotalMicros();
+        }
+        assertEquals(expectedMicros, cart.getSubtotalMicros());
+        assertEquals(recompute(cart), cartService.calculateTotals(cart));
+    }
+
+    @Test
+    void testRunningTotalMatchesRecomputationForAppendedLines() {
+        Random random = new Random(42);
+        Cart cart = new Cart();
+
+        for (int i = 0; i < 500; i++) {
+            Product product = products[random.nextInt(products.length)];
+            cart = cartService.addItem(cart, new CartItem(product, random.nextInt(5) + 1));
+            assertMatchesRecomputation(cart);
+        }
+    }
+
+    @Test
+    void testRunningTotalMatchesRecomputationForMergedLines() {
+        Random random = new Random(7);
+        Cart cart = Cart.merging();
+
+        for (int i = 0; i < 500; i++) {
+            Product product = products[random.nextInt(products.length)];
+            String name = product.name();
+            switch (random.nextInt(3)) {
+                case 0 -> cart = cartService.addItem(cart, new CartItem(product, random.nextInt(5) + 1));
+                case 1 -> cart = cart.find(name).isDefined()
+                        ? cartService.updateQuantity(cart, name, random.nextInt(9) + 1)
+                        : cart;
+                default -> cart = cartService.removeItem(cart, name);
+            }
+            assertMatchesRecomputation(cart);
+        }
+    }
+
+    @Test
+    void testRunningTotalFollowsRepricedMergedLine() {
+        Cart cart = Cart.merging();
+        cart = cartService.addItem(cart, new CartItem(new Product("Weetabix", 9.98), 1));
+        cart = cartService.addItem(cart, new CartItem(new Product("Weetabix", 10.50), 1));
+
+        assertEquals(21.00, cartService.calculateSubtotal(cart), 0.0001);
+        assertMatchesRecomputation(cart);
+    }
+
+    @Test
+    void testBatchAndListConstructorCarryRunningTotal() {
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(new CartItem(products[i % products.length], i % 3 + 1));
+        }
+
+        assertMatchesRecomputation(new Cart(items));
+        assertMatchesRecomputation(cartService.addItems(new Cart(), items));
+        assertMatchesRecomputation(cartService.addItems(Cart.merging(), items));
+    }
+
+    @Test
+    void testSubMinorPricesAreNotRoundedPerLine() {
+        Cart cart = new Cart();
+        for (int i = 0; i < 3; i++) {
+            cart = cartService.addItem(cart, new CartItem(new Product("Gum", 0.003), 1));
+        }
+
+        assertEquals(9_000L, cart.getSubtotalMicros());
+        assertEquals(0.01, cartService.calculateTotals(cart).subtotal());
+    }
+}
@@ -0,0 +1,135 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.PricingOverloadException;
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.siriusxm.example.cart.service.AdaptiveConcurrencyLimiter.Outcome.DROPPED;
+import static com.siriusxm.example.cart.service.AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+import static com.siriusxm.example.cart.service.AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static AdaptiveConcurrencyLimiter limiter(int initial, int min, int max) {
+        return new AdaptiveConcurrencyLimiter(new PricingOptions.Limiting(true, initial, min, max, 0.5, 2.0));
+    }
+
+    @Test
+    void testRequestsBeyondLimitAreShed() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10);
+        limiter.acquire();
+        limiter.acquire();
+
+        PricingOverloadException shed = assertThrows(PricingOverloadException.class, limiter::acquire);
+
+        assertInstanceOf(ProductFetchException.class, shed);
+        assertEquals(1, limiter.shedCount());
+        assertEquals(2, limiter.inFlight());
+    }
+
+    @Test
+    void testReleaseFreesSlot() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1);
+        long started = limiter.acquire();
+        limiter.release(started, IGNORED);
+
+        assertDoesNotThrow(limiter::acquire);
+    }
+
+    @Test
+    void testDropBacksOffMultiplicatively() {
+        AdaptiveConcurrencyLimiter limiter = limiter(16, 2, 100);
+
+        limiter.release(limiter.acquire(), DROPPED);
+        assertEquals(8, limiter.limit());
+        limiter.release(limiter.acquire(), DROPPED);
+        limiter.release(limiter.acquire(), DROPPED);
+        limiter.release(limiter.acquire(), DROPPED);
+
+        assertEquals(2, limiter.limit());
+    }
+
+    @Test
+    void testBusySuccessGrowsLimitAdditively() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 3);
+
+        for (int i = 0; i < 5; i++) {
+            long first = limiter.acquire();
+            long second = limiter.acquire();
+            limiter.release(first, SUCCESS);
+            limiter.release(second, SUCCESS);
+        }
+
+        assertEquals(3, limiter.limit());
+    }
+
+    @Test
+    void testIdleSuccessDoesNotGrowLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 100);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.release(limiter.acquire(), SUCCESS);
+        }
+
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    void testSlowResponseAfterBaselineBacksOff() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 100);
+        for (int i = 0; i < AdaptiveConcurrencyLimiter.RTT_WINDOW; i++) {
+            limiter.release(limiter.acquire(), SUCCESS);
+        }
+        assertNotEquals(Long.MAX_VALUE, limiter.baselineRttNanos());
+
+        limiter.acquire();
+        limiter.release(System.nanoTime() - TimeUnit.SECONDS.toNanos(1), SUCCESS);
+
+        assertEquals(5, limiter.limit());
+    }
+
+    @Test
+    void testConcurrentSlowResponsesBackOffOncePerRoundTrip() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 2, 100);
+        for (int i = 0; i < AdaptiveConcurrencyLimiter.RTT_WINDOW; i++) {
+            limiter.release(limiter.acquire(), SUCCESS);
+        }
+        long[] burst = new long[20];
+        for (int i = 0; i < burst.length; i++) {
+            burst[i] = limiter.acquire();
+        }
+        TimeUnit.MILLISECONDS.sleep(20);
+
+        for (long started : burst) {
+            limiter.release(started, SUCCESS);
+        }
+        assertEquals(10, limiter.limit());
+
+        long afterBackoff = limiter.acquire();
+        TimeUnit.MILLISECONDS.sleep(20);
+        limiter.release(afterBackoff, DROPPED);
+        assertEquals(5, limiter.limit());
+    }
+
+    @Test
+    void testDisabledLimiterNeverSheds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(PricingOptions.Limiting.DISABLED);
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.acquire();
+        }
+
+        assertEquals(0, limiter.shedCount());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void testInvalidLimitsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PricingOptions.Limiting(true, 5, 10, 20, 0.9, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new PricingOptions.Limiting(true, 5, 1, 20, 1.0, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new PricingOptions.Limiting(true, 5, 1, 20, 0.9, 0.5));
+    }
+}
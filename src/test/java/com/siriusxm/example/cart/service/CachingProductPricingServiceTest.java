@@ -0,0 +1,385 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.PricingCircuitOpenException;
+import com.siriusxm.example.cart.exception.PricingStatusException;
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingProductPricingServiceTest {
+
+    private final Product cornflakes = new Product("Corn Flakes", 2.52);
+    private final Product weetabix = new Product("Weetabix", 9.98);
+
+    @Mock
+    private ProductPricingService delegate;
+
+    private ProductPriceCache cache;
+    private CachingProductPricingService service;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductPriceCache(Duration.ofMinutes(5), 100, System::nanoTime, Runnable::run);
+        service = new CachingProductPricingService(delegate, cache);
+    }
+
+    @Test
+    void testSecondFetchIsServedFromCache() {
+        when(delegate.fetchProduct("cornflakes")).thenReturn(Try.success(cornflakes));
+
+        assertEquals(cornflakes, service.fetchProduct("cornflakes").get());
+        assertEquals(cornflakes, service.fetchProduct("cornflakes").get());
+
+        verify(delegate, times(1)).fetchProduct("cornflakes");
+        assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    void testCacheKeyIsCaseInsensitive() {
+        when(delegate.fetchProduct("CornFlakes")).thenReturn(Try.success(cornflakes));
+
+        service.fetchProduct("CornFlakes");
+        Try<Product> result = service.fetchProduct("CORNFLAKES");
+
+        assertEquals(cornflakes, result.get());
+        verify(delegate, never()).fetchProduct("CORNFLAKES");
+    }
+
+    @Test
+    void testFailuresAreNotCached() {
+        when(delegate.fetchProduct("nonexistent"))
+                .thenReturn(Try.failure(new ProductFetchException("Failed to fetch product: nonexistent, status: 404")));
+
+        assertTrue(service.fetchProduct("nonexistent").isFailure());
+        assertTrue(service.fetchProduct("nonexistent").isFailure());
+
+        verify(delegate, times(2)).fetchProduct("nonexistent");
+    }
+
+    @Test
+    void testBlankNameFailsWithoutCallingDelegate() {
+        Try<Product> result = service.fetchProduct("  ");
+
+        assertInstanceOf(ProductFetchException.class, result.getCause());
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void testFetchProductsOnlyFetchesMisses() {
+        when(delegate.fetchProduct("cornflakes")).thenReturn(Try.success(cornflakes));
+        when(delegate.fetchProducts(List.of("weetabix"))).thenReturn(Map.of("weetabix", Try.success(weetabix)));
+        service.fetchProduct("cornflakes");
+
+        Map<String, Try<Product>> results = service.fetchProducts(List.of("weetabix", "cornflakes"));
+
+        assertEquals(List.of("weetabix", "cornflakes"), List.copyOf(results.keySet()));
+        assertEquals(weetabix, results.get("weetabix").get());
+        assertEquals(cornflakes, results.get("cornflakes").get());
+        assertEquals(weetabix, cache.get("weetabix").get());
+    }
+
+    @Test
+    void testFetchProductsAllCachedSkipsDelegate() {
+        cache.put("cornflakes", cornflakes);
+
+        Map<String, Try<Product>> results = service.fetchProducts(List.of("CornFlakes"));
+
+        assertEquals(cornflakes, results.get("CornFlakes").get());
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void testConcurrentMissesAreCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.fetchProduct(anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Try.success(cornflakes);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Try<Product>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String name = i % 2 == 0 ? "cornflakes" : "CornFlakes";
+                results.add(executor.submit(() -> service.fetchProduct(name)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Try<Product>> result : results) {
+                assertEquals(cornflakes, result.get(5, TimeUnit.SECONDS).get());
+            }
+            verify(delegate, times(1)).fetchProduct(anyString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConcurrentFailureIsSharedNotRetried() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.fetchProduct("nonexistent")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Try.failure(new ProductFetchException("Failed to fetch product: nonexistent, status: 404"));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Try<Product>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> service.fetchProduct("nonexistent")));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Try<Product>> result : results) {
+                assertInstanceOf(ProductFetchException.class, result.get(5, TimeUnit.SECONDS).getCause());
+            }
+            verify(delegate, times(1)).fetchProduct("nonexistent");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFetchProductsCoalescesCaseVariantsInOneBatch() {
+        when(delegate.fetchProducts(List.of("CornFlakes")))
+                .thenReturn(Map.of("CornFlakes", Try.success(cornflakes)));
+
+        Map<String, Try<Product>> results = service.fetchProducts(List.of("CornFlakes", "cornflakes"));
+
+        assertEquals(cornflakes, results.get("CornFlakes").get());
+        assertEquals(cornflakes, results.get("cornflakes").get());
+    }
+
+    @Test
+    void testBatchFetchErrorReleasesClaimedKeys() {
+        when(delegate.fetchProducts(List.of("weetabix", "cornflakes")))
+                .thenThrow(new Error("Pricing thread died"))
+                .thenReturn(Map.of("weetabix", Try.success(weetabix), "cornflakes", Try.success(cornflakes)));
+
+        assertThrows(Error.class, () -> service.fetchProducts(List.of("weetabix", "cornflakes")));
+        Map<String, Try<Product>> results = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> service.fetchProducts(List.of("weetabix", "cornflakes")));
+
+        assertEquals(weetabix, results.get("weetabix").get());
+        assertEquals(cornflakes, results.get("cornflakes").get());
+    }
+
+    private CachingProductPricingService refreshingService(AtomicLong nanos, Executor executor) {
+        cache = new ProductPriceCache(Duration.ofMinutes(5), 100, Duration.ofSeconds(30), Duration.ofMinutes(2),
+                nanos::get, Runnable::run);
+        return new CachingProductPricingService(delegate, cache, executor);
+    }
+
+    @Test
+    void testFreshEntryIsNotRefreshed() {
+        AtomicLong nanos = new AtomicLong();
+        CachingProductPricingService refreshing = refreshingService(nanos, Runnable::run);
+        cache.put("weetabix", weetabix);
+
+        nanos.addAndGet(Duration.ofMinutes(4).toNanos());
+
+        assertEquals(weetabix, refreshing.fetchProduct("weetabix").get());
+        verifyNoInteractions(delegate);
+        assertEquals(0, refreshing.getRefreshCount());
+    }
+
+    @Test
+    void testEntryNearExpiryIsServedAndRefreshed() {
+        AtomicLong nanos = new AtomicLong();
+        CachingProductPricingService refreshing = refreshingService(nanos, Runnable::run);
+        Product repriced = new Product("Weetabix", 10.49);
+        when(delegate.fetchProduct("weetabix")).thenReturn(Try.success(repriced));
+        cache.put("weetabix", weetabix);
+
+        nanos.addAndGet(Duration.ofSeconds(280).toNanos());
+
+        assertEquals(weetabix, refreshing.fetchProduct("weetabix").get());
+        assertEquals(repriced, cache.get("weetabix").get());
+        assertEquals(1, refreshing.getRefreshCount());
+    }
+
+    @Test
+    void testStaleEntryIsServedWithinMaxStaleness() {
+        AtomicLong nanos = new AtomicLong();
+        CachingProductPricingService refreshing = refreshingService(nanos, Runnable::run);
+        when(delegate.fetchProduct("weetabix"))
+                .thenReturn(Try.failure(new ProductFetchException("Failed to fetch product: weetabix, status: 503")));
+        cache.put("weetabix", weetabix);
+
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        assertEquals(weetabix, refreshing.fetchProduct("weetabix").get());
+        verify(delegate).fetchProduct("weetabix");
+    }
+
+    @Test
+    void testEntryBeyondMaxStalenessIsFetchedInline() {
+        AtomicLong nanos = new AtomicLong();
+        CachingProductPricingService refreshing = refreshingService(nanos, Runnable::run);
+        Product repriced = new Product("Weetabix", 10.49);
+        when(delegate.fetchProduct("weetabix")).thenReturn(Try.success(repriced));
+        cache.put("weetabix", weetabix);
+
+        nanos.addAndGet(Duration.ofMinutes(8).toNanos());
+
+        assertEquals(repriced, refreshing.fetchProduct("weetabix").get());
+        assertEquals(0, refreshing.getRefreshCount());
+    }
+
+    @Test
+    void testSaturatedRefreshExecutorServesStaleAndReleasesKey() {
+        AtomicLong nanos = new AtomicLong();
+        CachingProductPricingService refreshing = refreshingService(nanos, runnable -> {
+            throw new RejectedExecutionException("queue full");
+        });
+        cache.put("weetabix", weetabix);
+
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        assertEquals(weetabix, refreshing.fetchProduct("weetabix").get());
+        assertEquals(weetabix, refreshing.fetchProduct("weetabix").get());
+        assertEquals(2, refreshing.getRejectedRefreshCount());
+        verifyNoInteractions(delegate);
+    }
+
+    private CachingProductPricingService fallbackService(AtomicLong nanos) {
+        cache = new ProductPriceCache(Duration.ofMinutes(5), 100, Duration.ZERO, Duration.ZERO, Duration.ofDays(1),
+                nanos::get, Runnable::run);
+        return new CachingProductPricingService(delegate, cache);
+    }
+
+    @Test
+    void testOpenCircuitServesLastKnownGoodPrice() {
+        AtomicLong nanos = new AtomicLong();
+        CachingProductPricingService withFallback = fallbackService(nanos);
+        when(delegate.fetchProduct("weetabix"))
+                .thenReturn(Try.success(weetabix))
+                .thenReturn(Try.failure(new PricingCircuitOpenException("Pricing circuit is OPEN, request not sent")));
+        withFallback.fetchProduct("weetabix");
+
+        nanos.addAndGet(Duration.ofHours(1).toNanos());
+
+        assertEquals(weetabix, withFallback.fetchProduct("weetabix").get());
+        assertEquals(1, withFallback.getFallbackCount());
+    }
+
+    @Test
+    void testOpenCircuitWithoutFallbackStaysFailure() {
+        AtomicLong nanos = new AtomicLong();
+        CachingProductPricingService withFallback = fallbackService(nanos);
+        when(delegate.fetchProduct("weetabix"))
+                .thenReturn(Try.failure(new PricingCircuitOpenException("Pricing circuit is OPEN, request not sent")));
+
+        Try<Product> result = withFallback.fetchProduct("weetabix");
+
+        assertTrue(result.isFailure());
+        assertInstanceOf(PricingCircuitOpenException.class, result.getCause());
+    }
+
+    @Test
+    void testOtherFailuresDoNotUseFallback() {
+        AtomicLong nanos = new AtomicLong();
+        CachingProductPricingService withFallback = fallbackService(nanos);
+        cache.put("weetabix", weetabix);
+        nanos.addAndGet(Duration.ofHours(1).toNanos());
+        when(delegate.fetchProducts(List.of("weetabix")))
+                .thenReturn(Map.of("weetabix", Try.failure(new ProductFetchException("Failed to fetch product: weetabix, status: 404"))));
+
+        assertTrue(withFallback.fetchProducts(List.of("weetabix")).get("weetabix").isFailure());
+        assertEquals(0, withFallback.getFallbackCount());
+    }
+
+    private CachingProductPricingService negativeCachingService() {
+        NegativeResultCache negativeCache = new NegativeResultCache(Duration.ofMinutes(1), Duration.ZERO, 100,
+                System::nanoTime, Runnable::run);
+        return new CachingProductPricingService(delegate, cache, negativeCache, Runnable::run);
+    }
+
+    @Test
+    void testNotFoundIsRememberedForSingleFetch() {
+        CachingProductPricingService negativeCaching = negativeCachingService();
+        PricingStatusException notFound = new PricingStatusException("Failed to fetch product: nonexistent", 404);
+        when(delegate.fetchProduct("nonexistent")).thenReturn(Try.failure(notFound));
+
+        negativeCaching.fetchProduct("nonexistent");
+        Try<Product> result = negativeCaching.fetchProduct("NonExistent");
+
+        assertSame(notFound, result.getCause());
+        verify(delegate, times(1)).fetchProduct(anyString());
+        assertEquals(1, negativeCaching.getNegativeCache().hitCount());
+    }
+
+    @Test
+    void testNotFoundIsRememberedForBatchFetch() {
+        CachingProductPricingService negativeCaching = negativeCachingService();
+        when(delegate.fetchProducts(List.of("cornflakes", "nonexistent"))).thenReturn(Map.of(
+                "cornflakes", Try.success(cornflakes),
+                "nonexistent", Try.failure(new PricingStatusException("Failed to fetch product: nonexistent", 404))));
+
+        negativeCaching.fetchProducts(List.of("cornflakes", "nonexistent"));
+        Map<String, Try<Product>> results = negativeCaching.fetchProducts(List.of("cornflakes", "nonexistent"));
+
+        assertEquals(cornflakes, results.get("cornflakes").get());
+        assertInstanceOf(PricingStatusException.class, results.get("nonexistent").getCause());
+        verify(delegate, times(1)).fetchProducts(anyList());
+    }
+
+    @Test
+    void testServerErrorIsNotRememberedWithZeroTtl() {
+        CachingProductPricingService negativeCaching = negativeCachingService();
+        when(delegate.fetchProduct("weetabix"))
+                .thenReturn(Try.failure(new PricingStatusException("Failed to fetch product: weetabix", 503)));
+
+        negativeCaching.fetchProduct("weetabix");
+        negativeCaching.fetchProduct("weetabix");
+
+        verify(delegate, times(2)).fetchProduct("weetabix");
+    }
+
+    @Test
+    void testBoundedRefreshExecutorRejectsOverflow() {
+        ExecutorService executor = CachingProductPricingService.boundedRefreshExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> awaitQuietly(release));
+            executor.execute(() -> awaitQuietly(release));
+
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> awaitQuietly(release)));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Cart;
+import com.siriusxm.example.cart.model.CartItem;
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartPricingServiceTest {
+
+    private final Product cornflakes = new Product("Corn Flakes", 2.52);
+    private final Product weetabix = new Product("Weetabix", 9.98);
+
+    private final PricingOptions virtual = PricingOptions.builder().virtualThreads(true).build();
+
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        cartService = new CartService("0.125");
+    }
+
+    /**
+     * Answers single fetches with {@code fetch}, recording which threads they ran on.
+     */
+    private static final class FakeSource implements ProductSource {
+
+        private final Function<String, Try<Product>> fetch;
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger batchCalls = new AtomicInteger();
+
+        FakeSource(Function<String, Try<Product>> fetch) {
+            this.fetch = fetch;
+        }
+
+        @Override
+        public Try<Product> fetchProduct(String productName) {
+            threads.add(Thread.currentThread());
+            return fetch.apply(productName);
+        }
+
+        @Override
+        public Map<String, Try<Product>> fetchProducts(Collection<String> productNames) {
+            batchCalls.incrementAndGet();
+            Map<String, Try<Product>> results = new LinkedHashMap<>();
+            productNames.forEach(name -> results.put(name, fetch.apply(name)));
+            return results;
+        }
+    }
+
+    private Map<String, Integer> order() {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        quantities.put("cornflakes", 2);
+        quantities.put("weetabix", 1);
+        return quantities;
+    }
+
+    private Try<Product> lookup(String productName) {
+        return switch (productName) {
+            case "cornflakes" -> Try.success(cornflakes);
+            case "weetabix" -> Try.success(weetabix);
+            default -> Try.failure(new ProductFetchException("Failed to fetch product: " + productName));
+        };
+    }
+
+    @Test
+    void testVirtualThreadsPriceEveryProductInOrder() {
+        FakeSource source = new FakeSource(this::lookup);
+        CartPricingService service = new CartPricingService(source, cartService, virtual);
+
+        Try<Cart> cart = service.priceCart(new Cart(), order());
+
+        assertTrue(cart.isSuccess());
+        assertEquals(List.of(new CartItem(cornflakes, 2), new CartItem(weetabix, 1)), cart.get().getItems());
+        assertEquals(2, source.threads.size());
+        assertTrue(source.threads.stream().allMatch(Thread::isVirtual));
+        assertEquals(0, source.batchCalls.get());
+    }
+
+    @Test
+    void testPlatformModeUsesBatchFetch() {
+        FakeSource source = new FakeSource(this::lookup);
+        CartPricingService service = new CartPricingService(source, cartService, PricingOptions.defaults());
+
+        Try<Cart> cart = service.priceCart(Cart.merging(), order());
+
+        assertTrue(cart.isSuccess());
+        assertEquals(15.02, cartService.calculateTotals(cart.get()).subtotal(), 0.001);
+        assertEquals(1, source.batchCalls.get());
+    }
+
+    @Test
+    void testFailureCancelsOutstandingFetches() throws Exception {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch slowInterrupted = new CountDownLatch(1);
+        FakeSource source = new FakeSource(name -> {
+            if (name.equals("weetabix")) {
+                slowStarted.countDown();
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException e) {
+                    slowInterrupted.countDown();
+                }
+                return Try.success(weetabix);
+            }
+            awaitQuietly(slowStarted);
+            return Try.failure(new ProductFetchException("Failed to fetch product: " + name));
+        });
+        CartPricingService service = new CartPricingService(source, cartService, virtual);
+
+        Try<Cart> cart = service.priceCart(new Cart(), order());
+
+        assertTrue(cart.isFailure());
+        assertInstanceOf(ProductFetchException.class, cart.getCause());
+        assertTrue(slowInterrupted.await(0, TimeUnit.SECONDS), "sibling fetch should be cancelled before returning");
+    }
+
+    @Test
+    void testInterruptingCallerAbandonsPricing() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        FakeSource source = new FakeSource(name -> {
+            started.countDown();
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return lookup(name);
+        });
+        CartPricingService service = new CartPricingService(source, cartService, virtual);
+
+        AtomicReference<Try<Cart>> result = new AtomicReference<>();
+        Thread caller = new Thread(() -> result.set(service.priceCart(new Cart(), order())));
+        caller.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(5_000);
+
+        assertFalse(caller.isAlive());
+        assertTrue(result.get().isFailure());
+        assertEquals("Cart pricing was interrupted", result.get().getCause().getMessage());
+        assertTrue(interrupted.await(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFetchesAreBoundedByMaxInFlight() {
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        FakeSource source = new FakeSource(name -> {
+            peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            current.decrementAndGet();
+            return Try.success(new Product(name, 1.00));
+        });
+        CartPricingService service = new CartPricingService(source, cartService,
+                PricingOptions.builder().virtualThreads(true).maxInFlight(3).build());
+
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            quantities.put("product-" + i, 1);
+        }
+
+        Try<Cart> cart = service.priceCart(new Cart(), quantities);
+
+        assertTrue(cart.isSuccess());
+        assertEquals(20, cart.get().getItemCount());
+        assertTrue(peak.get() <= 3, "peak in-flight was " + peak.get());
+    }
+
+    @Test
+    void testEmptyOrderReturnsCartUnchanged() {
+        CartPricingService service = new CartPricingService(new FakeSource(this::lookup), cartService, virtual);
+        Cart cart = new Cart();
+
+        assertSame(cart, service.priceCart(cart, Map.of()).get());
+        assertThrows(IllegalArgumentException.class, () -> service.priceCart(null, order()));
+        assertThrows(IllegalArgumentException.class, () -> service.priceCart(cart, null));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
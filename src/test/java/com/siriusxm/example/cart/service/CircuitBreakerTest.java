@@ -0,0 +1,111 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.PricingCircuitOpenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new CircuitBreaker(new PricingOptions.Breaker(true, 3, Duration.ofSeconds(30), 1), nanos::get);
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.acquirePermission();
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    void testConsecutiveFailuresOpenCircuit() {
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        fail(1);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertThrows(PricingCircuitOpenException.class, breaker::acquirePermission);
+        assertEquals(1, breaker.rejectedCount());
+    }
+
+    @Test
+    void testSuccessResetsFailureCount() {
+        fail(2);
+        breaker.acquirePermission();
+        breaker.onSuccess();
+        fail(2);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testOpenCircuitLetsOneTrialThroughAfterOpenDuration() {
+        fail(3);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        breaker.acquirePermission();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertThrows(PricingCircuitOpenException.class, breaker::acquirePermission);
+    }
+
+    @Test
+    void testSuccessfulTrialClosesCircuit() {
+        fail(3);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        breaker.acquirePermission();
+
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertDoesNotThrow(breaker::acquirePermission);
+    }
+
+    @Test
+    void testFailedTrialReopensCircuit() {
+        fail(3);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        breaker.acquirePermission();
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        assertThrows(PricingCircuitOpenException.class, breaker::acquirePermission);
+    }
+
+    @Test
+    void testIgnoredTrialFreesTrialSlot() {
+        fail(3);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        breaker.acquirePermission();
+
+        breaker.onIgnored();
+
+        assertDoesNotThrow(breaker::acquirePermission);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+    }
+
+    @Test
+    void testDisabledBreakerNeverOpens() {
+        CircuitBreaker disabled = new CircuitBreaker(PricingOptions.Breaker.DISABLED, nanos::get);
+
+        for (int i = 0; i < 100; i++) {
+            disabled.acquirePermission();
+            disabled.onFailure();
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, disabled.state());
+    }
+}
@@ -0,0 +1,77 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentDecoderTest {
+
+    private static final String BODY = "{\"title\":\"Corn Flakes\",\"price\":2.52,\"description\":\""
+            + "crunchy ".repeat(200) + "\"}";
+
+    private final ContentDecoder decoder = new ContentDecoder();
+
+    private interface Encoder {
+        OutputStream wrap(OutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(Encoder encoder) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = encoder.wrap(bytes)) {
+            out.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private String decode(byte[] body, String encoding) throws IOException {
+        try (InputStream decoded = decoder.decode(new ByteArrayInputStream(body), encoding)) {
+            return new String(decoded.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void testGzipBodyIsDecodedAndCounted() throws IOException {
+        byte[] gzipped = encode(GZIPOutputStream::new);
+
+        assertEquals(BODY, decode(gzipped, "gzip"));
+        assertEquals(1, decoder.decodedResponseCount());
+        assertEquals(gzipped.length, decoder.encodedByteCount());
+        assertEquals(BODY.length(), decoder.decodedByteCount());
+        assertTrue(decoder.encodedByteCount() < decoder.decodedByteCount());
+    }
+
+    @Test
+    void testZlibDeflateBodyIsDecoded() throws IOException {
+        assertEquals(BODY, decode(encode(DeflaterOutputStream::new), "deflate"));
+    }
+
+    @Test
+    void testRawDeflateBodyIsDecoded() throws IOException {
+        byte[] raw = encode(out -> new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, true)));
+
+        assertEquals(BODY, decode(raw, "deflate"));
+    }
+
+    @Test
+    void testIdentityBodyIsPassedThroughUncounted() throws IOException {
+        assertEquals(BODY, decode(BODY.getBytes(StandardCharsets.UTF_8), "identity"));
+        assertEquals(0, decoder.decodedResponseCount());
+        assertEquals(0, decoder.decodedByteCount());
+    }
+
+    @Test
+    void testUnsupportedEncodingIsRejected() {
+        assertThrows(ProductFetchException.class, () -> decoder.decode(new ByteArrayInputStream(new byte[0]), "br"));
+    }
+}
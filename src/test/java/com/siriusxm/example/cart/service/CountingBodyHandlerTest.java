@@ -0,0 +1,98 @@
+package com.siriusxm.example.cart.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingBodyHandlerTest {
+
+    private static final HttpResponse.ResponseInfo OK = new HttpResponse.ResponseInfo() {
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (name, value) -> true);
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    };
+
+    private static final Flow.Subscription UNBOUNDED = new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    };
+
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testBodyBytesAreRecordedOnCompletion() throws Exception {
+        DistributionSummary bytes = new SimpleMeterRegistry().summary("cart.pricing.response.size");
+        CountingBodyHandler<String> handler = new CountingBodyHandler<>(HttpResponse.BodyHandlers.ofString(), bytes::record);
+
+        HttpResponse.BodySubscriber<String> subscriber = handler.apply(OK);
+        subscriber.onSubscribe(UNBOUNDED);
+        subscriber.onNext(List.of(utf8("{\"title\":\"Corn Flakes\","), utf8("\"price\":")));
+        assertEquals(0, bytes.count());
+        subscriber.onNext(List.of(utf8("2.52}")));
+        subscriber.onComplete();
+
+        assertEquals("{\"title\":\"Corn Flakes\",\"price\":2.52}", subscriber.getBody().toCompletableFuture().get());
+        assertEquals(1, bytes.count());
+        assertEquals(36, bytes.totalAmount(), 0.0);
+    }
+
+    @Test
+    void testFailedBodyIsNotRecorded() {
+        DistributionSummary bytes = new SimpleMeterRegistry().summary("cart.pricing.response.size");
+        HttpResponse.BodySubscriber<String> subscriber =
+                new CountingBodyHandler<>(HttpResponse.BodyHandlers.ofString(), bytes::record).apply(OK);
+
+        subscriber.onSubscribe(UNBOUNDED);
+        subscriber.onNext(List.of(utf8("{\"title\":")));
+        subscriber.onError(new IOException("Connection reset"));
+
+        assertTrue(subscriber.getBody().toCompletableFuture().isCompletedExceptionally());
+        assertEquals(0, bytes.count());
+    }
+
+    @Test
+    void testBodyClosedEarlyIsRecordedOnce() throws Exception {
+        DistributionSummary bytes = new SimpleMeterRegistry().summary("cart.pricing.response.size");
+        HttpResponse.BodySubscriber<InputStream> subscriber =
+                new CountingBodyHandler<>(HttpResponse.BodyHandlers.ofInputStream(), bytes::record).apply(OK);
+
+        subscriber.onSubscribe(UNBOUNDED);
+        subscriber.onNext(List.of(utf8("{\"title\":\"Corn Flakes\",\"price\":2.52}")));
+        subscriber.getBody().toCompletableFuture().get().close();
+        subscriber.onComplete();
+
+        assertEquals(1, bytes.count());
+        assertEquals(36, bytes.totalAmount(), 0.0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.siriusxm.example.cart.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineBodyHandlerTest {
+
+    private static final HttpResponse.ResponseInfo OK = new HttpResponse.ResponseInfo() {
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (name, value) -> true);
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    };
+
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testBodyWithinDeadlinePassesThrough() throws Exception {
+        DeadlineBodyHandler<String> handler =
+                new DeadlineBodyHandler<>(HttpResponse.BodyHandlers.ofString(), Duration.ofSeconds(5));
+        HttpResponse.BodySubscriber<String> subscriber = handler.apply(OK);
+
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        subscriber.onNext(List.of(utf8("{\"title\":\"Corn Flakes\",\"price\":2.52}")));
+        subscriber.onComplete();
+
+        assertEquals("{\"title\":\"Corn Flakes\",\"price\":2.52}", subscriber.getBody().toCompletableFuture().get());
+        assertFalse(handler.expired());
+    }
+
+    @Test
+    void testStalledBodyWakesReaderWithTimeoutAndCancelsExchange() throws Exception {
+        DeadlineBodyHandler<InputStream> handler =
+                new DeadlineBodyHandler<>(HttpResponse.BodyHandlers.ofInputStream(), Duration.ofMillis(100));
+        HttpResponse.BodySubscriber<InputStream> subscriber = handler.apply(OK);
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.countDown();
+            }
+        });
+        subscriber.onNext(List.of(utf8("{\"title\":\"Corn")));
+
+        InputStream body = subscriber.getBody().toCompletableFuture().get();
+        IOException failure = assertThrows(IOException.class, body::readAllBytes);
+
+        assertInstanceOf(HttpTimeoutException.class, failure.getCause());
+        assertTrue(handler.expired());
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,160 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskPriceStoreTest {
+
+    private static final DiskPriceStore.Entry CORNFLAKES =
+            new DiskPriceStore.Entry(new Product("Corn Flakes", 2.52), "\"v1\"", "Wed, 01 Jan 2025 00:00:00 GMT");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEntriesSurviveReopen() {
+        try (DiskPriceStore store = DiskPriceStore.open(tempDir)) {
+            store.put("cornflakes", CORNFLAKES);
+            store.put("weetabix", new DiskPriceStore.Entry(new Product("Weetabix", 9.98), null, "Thu, 02 Jan 2025"));
+        }
+
+        try (DiskPriceStore reopened = DiskPriceStore.open(tempDir)) {
+            assertEquals(CORNFLAKES, reopened.get("cornflakes").get());
+            assertNull(reopened.get("weetabix").get().etag());
+            assertEquals(2, reopened.size());
+        }
+    }
+
+    @Test
+    void testRemovedEntryStaysRemovedAfterReopen() {
+        try (DiskPriceStore store = DiskPriceStore.open(tempDir)) {
+            store.put("cornflakes", CORNFLAKES);
+            store.remove("cornflakes");
+        }
+
+        try (DiskPriceStore reopened = DiskPriceStore.open(tempDir)) {
+            assertTrue(reopened.get("cornflakes").isEmpty());
+        }
+    }
+
+    @Test
+    void testLaterPutReplacesEarlier() {
+        DiskPriceStore.Entry updated = new DiskPriceStore.Entry(new Product("Corn Flakes", 2.99), "\"v2\"", null);
+        try (DiskPriceStore store = DiskPriceStore.open(tempDir)) {
+            store.put("cornflakes", CORNFLAKES);
+            store.put("cornflakes", updated);
+        }
+
+        try (DiskPriceStore reopened = DiskPriceStore.open(tempDir)) {
+            assertEquals(updated, reopened.get("cornflakes").get());
+        }
+    }
+
+    @Test
+    void testEntryWithoutValidatorsIsNotStored() {
+        try (DiskPriceStore store = DiskPriceStore.open(tempDir)) {
+            store.put("cornflakes", new DiskPriceStore.Entry(new Product("Corn Flakes", 2.52), null, null));
+
+            assertTrue(store.get("cornflakes").isEmpty());
+        }
+    }
+
+    @Test
+    void testTornFinalRecordIsDropped() throws IOException {
+        try (DiskPriceStore store = DiskPriceStore.open(tempDir)) {
+            store.put("cornflakes", CORNFLAKES);
+            store.put("weetabix", new DiskPriceStore.Entry(new Product("Weetabix", 9.98), "\"w1\"", null));
+        }
+        Path file = tempDir.resolve(DiskPriceStore.FILE_NAME);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        try (DiskPriceStore reopened = DiskPriceStore.open(tempDir)) {
+            assertEquals(CORNFLAKES, reopened.get("cornflakes").get());
+            assertTrue(reopened.get("weetabix").isEmpty());
+        }
+    }
+
+    @Test
+    void testCorruptRecordTypeDropsTheRestAndIsRepaired() throws IOException {
+        DiskPriceStore.Entry weetabix = new DiskPriceStore.Entry(new Product("Weetabix", 9.98), "\"w1\"", null);
+        Path file = tempDir.resolve(DiskPriceStore.FILE_NAME);
+        try (DiskPriceStore store = DiskPriceStore.open(tempDir)) {
+            store.put("cornflakes", CORNFLAKES);
+        }
+        int secondRecord = (int) Files.size(file);
+        try (DiskPriceStore store = DiskPriceStore.open(tempDir)) {
+            store.put("weetabix", weetabix);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[secondRecord] = 9; // neither a put nor a remove
+        Files.write(file, bytes);
+
+        try (DiskPriceStore reopened = DiskPriceStore.open(tempDir)) {
+            assertTrue(reopened.isEnabled());
+            assertEquals(CORNFLAKES, reopened.get("cornflakes").get());
+            assertTrue(reopened.get("weetabix").isEmpty());
+            reopened.put("weetabix", weetabix);
+        }
+
+        try (DiskPriceStore repaired = DiskPriceStore.open(tempDir)) {
+            assertEquals(CORNFLAKES, repaired.get("cornflakes").get());
+            assertEquals(weetabix, repaired.get("weetabix").get());
+        }
+    }
+
+    @Test
+    void testUnusableDirectoryDisablesStoreAndReleasesLock() throws IOException {
+        Files.createDirectories(tempDir.resolve(DiskPriceStore.FILE_NAME)); // the log cannot be read or replaced
+
+        try (DiskPriceStore store = DiskPriceStore.open(tempDir)) {
+            assertFalse(store.isEnabled());
+        }
+        try (FileChannel lock = FileChannel.open(tempDir.resolve(DiskPriceStore.LOCK_FILE_NAME),
+                StandardOpenOption.WRITE)) {
+            assertNotNull(lock.tryLock());
+        }
+    }
+
+    @Test
+    void testSecondStoreOnLockedDirectoryKeepsToMemory() throws IOException {
+        DiskPriceStore.Entry weetabix = new DiskPriceStore.Entry(new Product("Weetabix", 9.98), "\"w1\"", null);
+        try (DiskPriceStore owner = DiskPriceStore.open(tempDir)) {
+            owner.put("cornflakes", CORNFLAKES);
+            byte[] ownerLog = Files.readAllBytes(tempDir.resolve(DiskPriceStore.FILE_NAME));
+
+            try (DiskPriceStore second = DiskPriceStore.open(tempDir)) {
+                second.put("weetabix", weetabix);
+
+                assertEquals(weetabix, second.get("weetabix").get());
+                assertTrue(second.get("cornflakes").isEmpty());
+            }
+            assertArrayEquals(ownerLog, Files.readAllBytes(tempDir.resolve(DiskPriceStore.FILE_NAME)));
+        }
+
+        try (DiskPriceStore reopened = DiskPriceStore.open(tempDir)) {
+            assertEquals(CORNFLAKES, reopened.get("cornflakes").get());
+            assertTrue(reopened.get("weetabix").isEmpty());
+        }
+    }
+
+    @Test
+    void testDisabledStoreRemembersNothing() {
+        DiskPriceStore disabled = DiskPriceStore.disabled();
+
+        disabled.put("cornflakes", CORNFLAKES);
+
+        assertFalse(disabled.isEnabled());
+        assertTrue(disabled.get("cornflakes").isEmpty());
+    }
+}
@@ -0,0 +1,95 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.PricingStatusException;
+import com.siriusxm.example.cart.model.Cart;
+import com.siriusxm.example.cart.model.CartItem;
+import com.siriusxm.example.cart.model.Product;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<RecordedEvent> record(String eventName, Runnable work) throws IOException {
+        Path file = tempDir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withThreshold(Duration.ZERO);
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .toList();
+    }
+
+    @Test
+    void testTotalsEventCarriesItemCount() throws IOException {
+        CartService cartService = new CartService("0.125");
+        Cart cart = cartService.addItem(new Cart(), new CartItem(new Product("Corn Flakes", 2.52), 2));
+        Cart fullCart = cartService.addItem(cart, new CartItem(new Product("Weetabix", 9.98), 1));
+
+        List<RecordedEvent> events = record(CartTotalsEvent.NAME, () -> cartService.calculateTotals(fullCart));
+
+        assertEquals(1, events.size());
+        assertEquals(2, events.get(0).getInt("itemCount"));
+        assertFalse(events.get(0).getDuration().isNegative());
+    }
+
+    @Test
+    void testCacheAnswersAreRecordedWithTheirOutcome() throws IOException {
+        ProductPriceCache cache = new ProductPriceCache(Duration.ofMinutes(5), 100);
+        NegativeResultCache negativeCache = new NegativeResultCache(Duration.ofMinutes(1), Duration.ZERO, 100);
+        CachingProductPricingService service = new CachingProductPricingService(
+                new ProductPricingService(HttpClient.newHttpClient(), "https://example.com/"),
+                cache, negativeCache, Runnable::run);
+        cache.put("cornflakes", new Product("Corn Flakes", 2.52));
+        negativeCache.put("nonexistent", new PricingStatusException("Failed to fetch product, status: 404", 404));
+
+        List<RecordedEvent> events = record(PricingFetchEvent.NAME, () -> {
+            service.fetchProduct("Cornflakes");
+            service.fetchProduct("nonexistent");
+        });
+
+        assertEquals(2, events.size());
+        assertEquals("Cornflakes", events.get(0).getString("product"));
+        assertEquals(PricingFetchEvent.HIT, events.get(0).getString("cacheOutcome"));
+        assertEquals(PricingFetchEvent.NEGATIVE, events.get(1).getString("cacheOutcome"));
+        assertNull(events.get(1).getString("url"));
+        assertEquals(0, events.get(1).getInt("status"));
+    }
+
+    @Test
+    void testShippedProfileEnablesEventsWithThresholds() throws Exception {
+        Configuration configuration;
+        try (Reader profile = new InputStreamReader(
+                getClass().getResourceAsStream("/jfr/shoppingcart.jfc"), StandardCharsets.UTF_8)) {
+            configuration = Configuration.create(profile);
+        }
+        Map<String, String> settings = configuration.getSettings();
+
+        assertEquals("true", settings.get(PricingFetchEvent.NAME + "#enabled"));
+        assertEquals("20 ms", settings.get(PricingFetchEvent.NAME + "#threshold"));
+        assertEquals("true", settings.get(CartTotalsEvent.NAME + "#enabled"));
+        assertEquals("1 ms", settings.get(CartTotalsEvent.NAME + "#threshold"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.siriusxm.example.cart.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void testFirstOfEverySampleIsLogged() {
+        LogSampler sampler = new LogSampler(3, 0, nanos::get);
+
+        assertTrue(sampler.shouldLog());
+        assertFalse(sampler.shouldLog());
+        assertFalse(sampler.shouldLog());
+        assertTrue(sampler.shouldLog());
+        assertEquals(2, sampler.takeSkipped());
+        assertEquals(0, sampler.takeSkipped());
+    }
+
+    @Test
+    void testRateLimitResetsEachSecond() {
+        LogSampler sampler = new LogSampler(1, 2, nanos::get);
+
+        assertTrue(sampler.shouldLog());
+        assertTrue(sampler.shouldLog());
+        assertFalse(sampler.shouldLog());
+
+        nanos.addAndGet(Duration.ofMillis(999).toNanos());
+        assertFalse(sampler.shouldLog());
+
+        nanos.addAndGet(Duration.ofMillis(1).toNanos());
+        assertTrue(sampler.shouldLog());
+        assertEquals(2, sampler.takeSkipped());
+    }
+
+    @Test
+    void testUnlimitedLogsEveryOccurrence() {
+        LogSampler sampler = new LogSampler(PricingOptions.Logging.UNLIMITED);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sampler.shouldLog());
+        }
+        assertEquals(0, sampler.takeSkipped());
+    }
+
+    @Test
+    void testTruncateKeepsShortPayloadsAndNotesLength() {
+        assertEquals("{\"title\":1}", LogSampler.truncate("{\"title\":1}", 16));
+        assertEquals("{\"tit... (11 chars)", LogSampler.truncate("{\"title\":1}", 5));
+        assertNull(LogSampler.truncate(null, 5));
+    }
+
+    @Test
+    void testTruncateDoesNotSplitSurrogatePair() {
+        assertEquals("ab... (4 chars)", LogSampler.truncate("ab🥣", 3));
+    }
+
+    @Test
+    void testInvalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LogSampler(0, 0, nanos::get));
+        assertThrows(IllegalArgumentException.class, () -> new LogSampler(1, -1, nanos::get));
+        assertThrows(IllegalArgumentException.class, () -> new PricingOptions.Logging(1, 0, 0));
+    }
+}
@@ -0,0 +1,100 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.PricingStatusException;
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NegativeResultCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private NegativeResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new NegativeResultCache(Duration.ofMinutes(1), Duration.ofSeconds(5), 100, nanos::get, Runnable::run);
+    }
+
+    private static PricingStatusException status(int statusCode) {
+        return new PricingStatusException("Failed to fetch product, status: " + statusCode, statusCode);
+    }
+
+    @Test
+    void testClientErrorExpiresAfterItsTtl() {
+        PricingStatusException notFound = status(404);
+        cache.put("nonexistent", notFound);
+
+        nanos.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertSame(notFound, cache.get("nonexistent").get());
+
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertTrue(cache.get("nonexistent").isEmpty());
+    }
+
+    @Test
+    void testServerErrorExpiresAfterItsTtl() {
+        cache.put("weetabix", status(500));
+
+        nanos.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertTrue(cache.get("weetabix").isDefined());
+
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertTrue(cache.get("weetabix").isEmpty());
+    }
+
+    @Test
+    void testTransientStatusesAndOtherFailuresAreNotCached() {
+        cache.put("timeout", status(408));
+        cache.put("throttled", status(429));
+        cache.put("unreachable", new IOException("Connection refused"));
+        cache.put("unparseable", new ProductFetchException("Failed to parse product JSON"));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testZeroTtlLeavesClassUncached() {
+        NegativeResultCache clientOnly = new NegativeResultCache(Duration.ofMinutes(1), Duration.ZERO, 100,
+                nanos::get, Runnable::run);
+
+        clientOnly.put("weetabix", status(503));
+        clientOnly.put("nonexistent", status(404));
+
+        assertTrue(clientOnly.get("weetabix").isEmpty());
+        assertTrue(clientOnly.get("nonexistent").isDefined());
+    }
+
+    @Test
+    void testInvalidateAndHitCount() {
+        cache.put("nonexistent", status(404));
+        cache.get("nonexistent");
+
+        cache.invalidate("nonexistent");
+
+        assertTrue(cache.get("nonexistent").isEmpty());
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    void testDisabledCacheRemembersNothing() {
+        NegativeResultCache disabled = NegativeResultCache.disabled();
+
+        disabled.put("nonexistent", status(404));
+
+        assertTrue(disabled.get("nonexistent").isEmpty());
+    }
+
+    @Test
+    void testInvalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new NegativeResultCache(Duration.ofSeconds(-1), Duration.ZERO, 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> new NegativeResultCache(Duration.ZERO, Duration.ZERO, 0));
+    }
+}
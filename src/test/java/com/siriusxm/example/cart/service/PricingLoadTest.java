@@ -0,0 +1,221 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.model.Cart;
+import com.siriusxm.example.cart.model.CartItem;
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load-test harness: workers price and total carts against a {@link PricingStubServer} as
+ * fast as they can for a fixed time, then throughput and latency percentiles are printed.
+ * <p>
+ * Excluded from {@code test}; run with {@code ./gradlew loadTest}, passing any of the
+ * {@code load.*} settings below as Gradle properties, e.g. {@code -Pload.concurrency=64}.
+ */
+@Tag("load")
+class PricingLoadTest {
+
+    /**
+     * @param concurrency  workers pricing carts at once, each one cart at a time
+     * @param warmup       how long workers run before results are recorded
+     * @param duration     how long results are recorded for, after {@code warmup}
+     * @param latency      stub delay before every response
+     * @param jitter       upper bound of a random delay added to {@code latency}
+     * @param errorRate    fraction of stub responses that are 503s
+     * @param cartSize     distinct sample products per cart, each fetched with its own request
+     * @param maxAttempts  attempts per fetch including retries
+     */
+    private record Settings(int concurrency, Duration warmup, Duration duration, Duration latency, Duration jitter,
+                            double errorRate, int cartSize, int maxAttempts) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("load.concurrency", 16),
+                    Duration.ofSeconds(Long.getLong("load.warmup-seconds", 2)),
+                    Duration.ofSeconds(Long.getLong("load.duration-seconds", 10)),
+                    Duration.ofMillis(Long.getLong("load.latency-ms", 20)),
+                    Duration.ofMillis(Long.getLong("load.jitter-ms", 10)),
+                    Double.parseDouble(System.getProperty("load.error-rate", "0.01")),
+                    Integer.getInteger("load.cart-size", 3),
+                    Integer.getInteger("load.max-attempts", 1));
+        }
+    }
+
+    /**
+     * Latencies recorded by one worker, or merged from several.
+     */
+    private static final class Latencies {
+
+        private long[] nanos = new long[1024];
+        private int count;
+
+        void record(long elapsedNanos) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = elapsedNanos;
+        }
+
+        static Latencies merge(List<Latencies> parts) {
+            Latencies merged = new Latencies();
+            merged.nanos = new long[Math.max(1, parts.stream().mapToInt(part -> part.count).sum())];
+            for (Latencies part : parts) {
+                System.arraycopy(part.nanos, 0, merged.nanos, merged.count, part.count);
+                merged.count += part.count;
+            }
+            Arrays.sort(merged.nanos, 0, merged.count);
+            return merged;
+        }
+
+        /**
+         * Nearest-rank percentile of sorted latencies, in milliseconds.
+         */
+        double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * count);
+            return nanos[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+
+    /**
+     * What one worker saw after the warm-up.
+     */
+    private record WorkerResult(Latencies fetches, Latencies carts, long failedFetches, long failedCarts) {
+    }
+
+    @Test
+    void testPricingUnderLoad() throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        assertTrue(settings.cartSize() >= 1 && settings.cartSize() <= PricingStubServer.SAMPLE_PRODUCTS.size(),
+                "load.cart-size must be between 1 and " + PricingStubServer.SAMPLE_PRODUCTS.size());
+
+        try (PricingStubServer stub = PricingStubServer.builder()
+                .latency(settings.latency())
+                .jitter(settings.jitter())
+                .errors(settings.errorRate(), 503)
+                .start();
+             ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+             ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            ProductPricingService pricing = new ProductPricingService(
+                    HttpClient.newBuilder().executor(clientExecutor).build(),
+                    stub.baseUrl(),
+                    PricingOptions.builder()
+                            .maxInFlight(settings.concurrency())
+                            .streamingParse(true)
+                            .retrying(new PricingOptions.Retrying(
+                                    settings.maxAttempts(), Duration.ofMillis(10), Duration.ofMillis(100), 0.2))
+                            .build());
+            CartService cartService = new CartService("0.125");
+
+            long recordFrom = System.nanoTime() + settings.warmup().toNanos();
+            long stopAt = recordFrom + settings.duration().toNanos();
+            List<Future<WorkerResult>> running = new ArrayList<>();
+            for (int i = 0; i < settings.concurrency(); i++) {
+                running.add(workers.submit(() -> priceCarts(pricing, cartService, settings, recordFrom, stopAt)));
+            }
+            List<WorkerResult> results = new ArrayList<>();
+            for (Future<WorkerResult> worker : running) {
+                results.add(await(worker));
+            }
+
+            report(settings, stub, pricing, results);
+            assertTrue(results.stream().mapToInt(result -> result.carts().count).sum() > 0, "No cart was priced");
+        }
+    }
+
+    private static WorkerResult priceCarts(ProductPricingService pricing, CartService cartService, Settings settings,
+                                           long recordFrom, long stopAt) {
+        Latencies fetches = new Latencies();
+        Latencies carts = new Latencies();
+        long failedFetches = 0;
+        long failedCarts = 0;
+        List<String> products = new ArrayList<>(PricingStubServer.SAMPLE_PRODUCTS);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (long cartStarted = System.nanoTime(); cartStarted < stopAt; cartStarted = System.nanoTime()) {
+            boolean recording = cartStarted >= recordFrom;
+            Collections.shuffle(products, random);
+            Cart cart = new Cart();
+            boolean priced = true;
+            for (String productName : products.subList(0, settings.cartSize())) {
+                long fetchStarted = System.nanoTime();
+                Try<Product> product = pricing.fetchProduct(productName);
+                if (recording) {
+                    fetches.record(System.nanoTime() - fetchStarted);
+                    failedFetches += product.isFailure() ? 1 : 0;
+                }
+                if (product.isFailure()) {
+                    priced = false;
+                    break;
+                }
+                cart = cartService.addItem(cart, new CartItem(product.get(), 1 + random.nextInt(3)));
+            }
+            if (priced) {
+                cartService.calculateTotals(cart);
+            }
+            if (recording) {
+                if (priced) {
+                    carts.record(System.nanoTime() - cartStarted);
+                } else {
+                    failedCarts++;
+                }
+            }
+        }
+        return new WorkerResult(fetches, carts, failedFetches, failedCarts);
+    }
+
+    private static WorkerResult await(Future<WorkerResult> worker) throws InterruptedException {
+        try {
+            return worker.get();
+        } catch (ExecutionException e) {
+            throw new AssertionError("Load worker failed", e.getCause());
+        }
+    }
+
+    private static void report(Settings settings, PricingStubServer stub, ProductPricingService pricing,
+                               List<WorkerResult> results) {
+        Latencies fetches = Latencies.merge(results.stream().map(WorkerResult::fetches).toList());
+        Latencies carts = Latencies.merge(results.stream().map(WorkerResult::carts).toList());
+        long failedFetches = results.stream().mapToLong(WorkerResult::failedFetches).sum();
+        long failedCarts = results.stream().mapToLong(WorkerResult::failedCarts).sum();
+        double seconds = settings.duration().toNanos() / 1e9;
+
+        StringBuilder report = new StringBuilder()
+                .append("Pricing load test: ").append(settings).append('\n')
+                .append(String.format(Locale.ROOT, "%-8s %10s %10s %8s %8s %8s %8s %8s %8s%n",
+                        "", "count", "per sec", "failed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"))
+                .append(row("fetches", fetches, failedFetches, seconds))
+                .append(row("carts", carts, failedCarts, seconds))
+                .append(String.format(Locale.ROOT, "stub requests %d (%d injected errors), retries %d, shed %d%n",
+                        stub.requestCount(), stub.injectedErrorCount(), pricing.getRetryCount(),
+                        pricing.getShedCount()));
+        System.out.print(report);
+    }
+
+    private static String row(String name, Latencies latencies, long failed, double seconds) {
+        return String.format(Locale.ROOT, "%-8s %10d %10.1f %8d %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                name, latencies.count, latencies.count / seconds, failed,
+                latencies.percentileMillis(50), latencies.percentileMillis(90), latencies.percentileMillis(99),
+                latencies.percentileMillis(99.9), latencies.percentileMillis(100));
+    }
+}
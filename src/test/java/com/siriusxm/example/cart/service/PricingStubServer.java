@@ -0,0 +1,269 @@
+package com.siriusxm.example.cart.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stand-in for the pricing host on a loopback port, serving the five sample product documents
+ * from {@code src/test/resources/pricing} at {@code /<name>.json}, so pricing can be exercised
+ * offline and under controlled conditions.
+ * <p>
+ * Every request waits {@code latency} plus a uniformly drawn {@code jitter}, then fails with
+ * {@code errorStatus} at {@code errorRate}; unknown products get a 404. A document can also be
+ * sent with a pause of {@code bodyStall} halfway through, after its headers, and gzipped for
+ * clients that accept it when {@code gzip} is set, and cut to half its length, as complete but
+ * corrupt bodies, when {@code truncated} is set. Requests are handled
+ * on virtual threads, so injected latency does not limit how many are served at once.
+ */
+final class PricingStubServer implements AutoCloseable {
+
+    static final List<String> SAMPLE_PRODUCTS = List.of("cheerios", "cornflakes", "frosties", "shreddies", "weetabix");
+
+    static {
+        // headers and body go out in separate writes; without this, Nagle's algorithm holds the
+        // body back for the client's delayed ACK and adds ~40 ms to every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final byte[] NOT_FOUND = "404: Not Found".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INJECTED_ERROR = "Injected error".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, byte[]> documents;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final int errorStatus;
+    private final Duration bodyStall;
+    private final boolean gzip;
+    private final boolean truncated;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpServer server;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+
+    private PricingStubServer(Builder builder) throws IOException {
+        this.documents = SAMPLE_PRODUCTS.stream()
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), PricingStubServer::readDocument));
+        this.latency = builder.latency;
+        this.jitter = builder.jitter;
+        this.errorRate = builder.errorRate;
+        this.errorStatus = builder.errorStatus;
+        this.bodyStall = builder.bodyStall;
+        this.gzip = builder.gzip;
+        this.truncated = builder.truncated;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Starts a stub that answers every request at once and never fails one.
+     */
+    static PricingStubServer start() throws IOException {
+        return builder().start();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static byte[] readDocument(String productName) {
+        try (InputStream document = PricingStubServer.class.getResourceAsStream("/pricing/" + productName + ".json")) {
+            if (document == null) {
+                throw new IllegalStateException("Missing sample pricing document for " + productName);
+            }
+            return document.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read sample pricing document for " + productName, e);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.increment();
+            sleep(latency.toNanos()
+                    + (jitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(jitter.toNanos() + 1)));
+            String path = exchange.getRequestURI().getPath();
+            byte[] document = path.endsWith(".json")
+                    ? documents.get(path.substring(1, path.length() - ".json".length()))
+                    : null;
+            if (document == null) {
+                respond(exchange, 404, "text/plain", NOT_FOUND);
+            } else if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.increment();
+                respond(exchange, errorStatus, "text/plain", INJECTED_ERROR);
+            } else if (gzip && String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip")) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                respondStalling(exchange, gzipped(document));
+            } else {
+                respondStalling(exchange, document);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    static byte[] gzipped(byte[] document) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(document);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(nanos));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // stopping; answer without the rest of the delay
+            }
+        }
+    }
+
+    private void respondStalling(HttpExchange exchange, byte[] document) throws IOException {
+        if (truncated) {
+            document = Arrays.copyOf(document, document.length / 2);
+        }
+        if (bodyStall.isZero()) {
+            respond(exchange, 200, "application/json", document);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, document.length);
+        exchange.getResponseBody().write(document, 0, document.length / 2);
+        exchange.getResponseBody().flush();
+        sleep(bodyStall.toNanos());
+        exchange.getResponseBody().write(document, document.length / 2, document.length - document.length / 2);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Base URL to configure {@link ProductPricingService} with, ending in a slash.
+     */
+    String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    long requestCount() {
+        return requests.sum();
+    }
+
+    long injectedErrorCount() {
+        return injectedErrors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    static final class Builder {
+
+        private Duration latency = Duration.ZERO;
+        private Duration jitter = Duration.ZERO;
+        private double errorRate;
+        private int errorStatus = 503;
+        private Duration bodyStall = Duration.ZERO;
+        private boolean gzip;
+        private boolean truncated;
+
+        private Builder() {
+        }
+
+        /**
+         * Fixed delay before every response.
+         */
+        Builder latency(Duration latency) {
+            if (latency == null || latency.isNegative()) {
+                throw new IllegalArgumentException("Latency cannot be negative");
+            }
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Upper bound of a random delay added to {@code latency}, drawn anew for every response.
+         */
+        Builder jitter(Duration jitter) {
+            if (jitter == null || jitter.isNegative()) {
+                throw new IllegalArgumentException("Jitter cannot be negative");
+            }
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Fraction of requests for known products answered with {@code errorStatus} instead.
+         */
+        Builder errors(double errorRate, int errorStatus) {
+            if (errorRate < 0 || errorRate > 1) {
+                throw new IllegalArgumentException("Error rate must be between 0 and 1");
+            }
+            if (errorStatus < 400 || errorStatus > 599) {
+                throw new IllegalArgumentException("Error status must be a 4xx or 5xx status");
+            }
+            this.errorRate = errorRate;
+            this.errorStatus = errorStatus;
+            return this;
+        }
+
+        /**
+         * Pause halfway through every product document, after its headers have been sent.
+         */
+        Builder bodyStall(Duration bodyStall) {
+            if (bodyStall == null || bodyStall.isNegative()) {
+                throw new IllegalArgumentException("Body stall cannot be negative");
+            }
+            this.bodyStall = bodyStall;
+            return this;
+        }
+
+        /**
+         * Gzip product documents for requests that accept it.
+         */
+        Builder gzip() {
+            this.gzip = true;
+            return this;
+        }
+
+        /**
+         * Send only the first half of every product document, declaring that as its whole length.
+         */
+        Builder truncated() {
+            this.truncated = true;
+            return this;
+        }
+
+        PricingStubServer start() throws IOException {
+            return new PricingStubServer(this);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.PricingStatusException;
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Cart;
+import com.siriusxm.example.cart.model.CartItem;
+import com.siriusxm.example.cart.model.CartTotals;
+import com.siriusxm.example.cart.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingStubServerTest {
+
+    private static ProductPricingService pricingService(PricingStubServer stub) {
+        return new ProductPricingService(HttpClient.newHttpClient(), stub.baseUrl());
+    }
+
+    @Test
+    void testSampleProductsArePricedOffline() throws IOException {
+        try (PricingStubServer stub = PricingStubServer.start()) {
+            Map<String, Try<Product>> products = pricingService(stub).fetchProducts(PricingStubServer.SAMPLE_PRODUCTS);
+
+            assertEquals(new Product("Cheerios", 8.43), products.get("cheerios").get());
+            assertEquals(new Product("Corn Flakes", 2.52), products.get("cornflakes").get());
+            assertEquals(new Product("Frosties", 4.99), products.get("frosties").get());
+            assertEquals(new Product("Shreddies", 4.68), products.get("shreddies").get());
+            assertEquals(new Product("Weetabix", 9.98), products.get("weetabix").get());
+            assertEquals(5, stub.requestCount());
+        }
+    }
+
+    @Test
+    void testSampleCartTotalsMatchTheReadme() throws IOException {
+        try (PricingStubServer stub = PricingStubServer.start()) {
+            ProductPricingService pricing = pricingService(stub);
+            CartService cartService = new CartService("0.125");
+
+            Cart cart = cartService.addItem(new Cart(), new CartItem(pricing.fetchProduct("cornflakes").get(), 2));
+            cart = cartService.addItem(cart, new CartItem(pricing.fetchProduct("weetabix").get(), 1));
+            CartTotals totals = cartService.calculateTotals(cart);
+
+            assertEquals(15.02, totals.subtotal(), 0.001);
+            assertEquals(1.88, totals.tax(), 0.001);
+            assertEquals(16.90, totals.total(), 0.001);
+        }
+    }
+
+    @Test
+    void testUnknownProductIsNotFound() throws IOException {
+        try (PricingStubServer stub = PricingStubServer.start()) {
+            Try<Product> result = pricingService(stub).fetchProduct("nonexistent");
+
+            assertInstanceOf(PricingStatusException.class, result.getCause());
+            assertEquals(404, ((PricingStatusException) result.getCause()).getStatusCode());
+        }
+    }
+
+    @Test
+    void testInjectedErrorsFailWithTheirStatus() throws IOException {
+        try (PricingStubServer stub = PricingStubServer.builder().errors(1.0, 500).start()) {
+            Try<Product> result = pricingService(stub).fetchProduct("cornflakes");
+
+            assertInstanceOf(PricingStatusException.class, result.getCause());
+            assertEquals(500, ((PricingStatusException) result.getCause()).getStatusCode());
+            assertEquals(1, stub.injectedErrorCount());
+        }
+    }
+
+    @Test
+    void testInjectedLatencyDelaysResponses() throws IOException {
+        try (PricingStubServer stub = PricingStubServer.builder()
+                .latency(Duration.ofMillis(100))
+                .jitter(Duration.ofMillis(20))
+                .start()) {
+            long started = System.nanoTime();
+            Try<Product> result = pricingService(stub).fetchProduct("weetabix");
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+            assertTrue(result.isSuccess());
+            assertTrue(elapsed.compareTo(Duration.ofMillis(100)) >= 0, "Took only " + elapsed);
+        }
+    }
+
+    @Test
+    void testStalledBodyFailsWithinRequestTimeout() throws IOException {
+        try (PricingStubServer stub = PricingStubServer.builder().bodyStall(Duration.ofSeconds(10)).start()) {
+            for (boolean streamingParse : new boolean[]{true, false}) {
+                ProductPricingService pricing = new ProductPricingService(HttpClient.newHttpClient(), stub.baseUrl(),
+                        PricingOptions.builder()
+                                .streamingParse(streamingParse)
+                                .requestTimeout(Duration.ofMillis(200))
+                                .build());
+
+                long started = System.nanoTime();
+                Try<Product> single = pricing.fetchProduct("weetabix");
+                Try<Product> batched = pricing.fetchProducts(List.of("cheerios")).get("cheerios");
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+                assertInstanceOf(HttpTimeoutException.class, single.getCause(), "streaming " + streamingParse);
+                assertInstanceOf(HttpTimeoutException.class, batched.getCause(), "streaming " + streamingParse);
+                assertTrue(elapsed.compareTo(Duration.ofSeconds(5)) < 0, "Took " + elapsed);
+            }
+        }
+    }
+
+    @Test
+    void testCompressedResponsesAreCountedInRegistry() throws IOException {
+        try (PricingStubServer stub = PricingStubServer.builder().gzip().start()) {
+            for (boolean streamingParse : new boolean[]{true, false}) {
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                ProductPricingService pricing = new ProductPricingService(HttpClient.newHttpClient(), stub.baseUrl(),
+                        PricingOptions.builder().compression(true).streamingParse(streamingParse).build(),
+                        DiskPriceStore.disabled(), registry);
+                long received = 0;
+                long decoded = 0;
+                for (String productName : PricingStubServer.SAMPLE_PRODUCTS) {
+                    byte[] document = PricingStubServer.readDocument(productName);
+                    received += PricingStubServer.gzipped(document).length;
+                    decoded += document.length;
+                }
+
+                assertTrue(pricing.fetchProducts(PricingStubServer.SAMPLE_PRODUCTS).values().stream()
+                        .allMatch(Try::isSuccess));
+
+                assertEquals(5, registry.get("cart.pricing.compression.responses").functionCounter().count());
+                assertEquals(received, registry.get("cart.pricing.compression.received").functionCounter().count());
+                assertEquals(decoded, registry.get("cart.pricing.compression.decoded").functionCounter().count());
+                assertEquals(pricing.getCompressionBytesSaved(),
+                        registry.get("cart.pricing.compression.saved").functionCounter().count());
+            }
+        }
+    }
+
+    @Test
+    void testCorruptCompressedBodyIsNotRetried() throws IOException {
+        try (PricingStubServer stub = PricingStubServer.builder().gzip().truncated().start()) {
+            for (boolean streamingParse : new boolean[]{true, false}) {
+                ProductPricingService pricing = new ProductPricingService(HttpClient.newHttpClient(), stub.baseUrl(),
+                        PricingOptions.builder()
+                                .compression(true)
+                                .streamingParse(streamingParse)
+                                .retrying(new PricingOptions.Retrying(
+                                        3, Duration.ofMillis(1), Duration.ofMillis(10), 0.1))
+                                .build());
+                long requestsBefore = stub.requestCount();
+
+                Try<Product> single = pricing.fetchProduct("weetabix");
+                Try<Product> batched = pricing.fetchProducts(List.of("cheerios")).get("cheerios");
+
+                assertInstanceOf(ProductFetchException.class, single.getCause(), "streaming " + streamingParse);
+                assertInstanceOf(ProductFetchException.class, batched.getCause(), "streaming " + streamingParse);
+                assertEquals(2, stub.requestCount() - requestsBefore, "streaming " + streamingParse);
+                assertEquals(0, pricing.getRetryCount());
+            }
+        }
+    }
+
+    @Test
+    void testCloseWaitsForAsyncFetchesInFlight() throws Exception {
+        try (PricingStubServer stub = PricingStubServer.builder().latency(Duration.ofMillis(300)).start()) {
+            ProductPricingService pricing = new ProductPricingService(HttpClient.newHttpClient(), stub.baseUrl(),
+                    PricingOptions.builder().streamingParse(true).build());
+            CompletableFuture<Map<String, Try<Product>>> batch =
+                    CompletableFuture.supplyAsync(() -> pricing.fetchProducts(PricingStubServer.SAMPLE_PRODUCTS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (stub.requestCount() < PricingStubServer.SAMPLE_PRODUCTS.size() && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            pricing.close();
+
+            assertTrue(batch.get(5, TimeUnit.SECONDS).values().stream().allMatch(Try::isSuccess));
+        }
+    }
+
+    @Test
+    void testInvalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PricingStubServer.builder().latency(Duration.ofMillis(-1)));
+        assertThrows(IllegalArgumentException.class, () -> PricingStubServer.builder().jitter(null));
+        assertThrows(IllegalArgumentException.class, () -> PricingStubServer.builder().errors(1.5, 503));
+        assertThrows(IllegalArgumentException.class, () -> PricingStubServer.builder().errors(0.1, 200));
+        assertThrows(IllegalArgumentException.class, () -> PricingStubServer.builder().bodyStall(Duration.ofMillis(-1)));
+    }
+}
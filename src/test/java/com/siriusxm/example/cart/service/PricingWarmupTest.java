@@ -0,0 +1,152 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingWarmupTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Answers single fetches with {@code fetch}, tracking how many run at once.
+     */
+    private static final class FakeSource implements ProductSource {
+
+        private final Function<String, Try<Product>> fetch;
+        private final Set<String> fetched = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        FakeSource(Function<String, Try<Product>> fetch) {
+            this.fetch = fetch;
+        }
+
+        @Override
+        public Try<Product> fetchProduct(String productName) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                fetched.add(productName);
+                return fetch.apply(productName);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public Map<String, Try<Product>> fetchProducts(Collection<String> productNames) {
+            return productNames.stream().collect(Collectors.toMap(Function.identity(), this::fetchProduct));
+        }
+    }
+
+    @Test
+    void testEveryProductIsFetchedOnce() {
+        FakeSource source = new FakeSource(name -> Try.success(new Product(name, 1.0)));
+        PricingWarmup warmup = new PricingWarmup(source,
+                List.of("cornflakes", "weetabix", " cornflakes ", ""), Duration.ofSeconds(5), 4);
+
+        PricingWarmup.Report report = warmup.warmUp();
+
+        assertEquals(Set.of("cornflakes", "weetabix"), source.fetched);
+        assertEquals(2, report.requested());
+        assertEquals(2, report.warmed());
+        assertTrue(report.failed().isEmpty());
+        assertEquals(0, report.abandoned());
+    }
+
+    @Test
+    void testFailuresAreReported() {
+        FakeSource source = new FakeSource(name -> name.equals("nonexistent")
+                ? Try.failure(new ProductFetchException("Not found"))
+                : Try.success(new Product(name, 1.0)));
+        PricingWarmup warmup = new PricingWarmup(source, List.of("cornflakes", "nonexistent"),
+                Duration.ofSeconds(5), 4);
+
+        PricingWarmup.Report report = warmup.warmUp();
+
+        assertEquals(1, report.warmed());
+        assertEquals(List.of("nonexistent"), report.failed());
+    }
+
+    @Test
+    void testFetchesAreBoundedByMaxInFlight() {
+        FakeSource source = new FakeSource(name -> {
+            sleepQuietly(20);
+            return Try.success(new Product(name, 1.0));
+        });
+        PricingWarmup warmup = new PricingWarmup(source, List.of("a", "b", "c", "d", "e", "f"),
+                Duration.ofSeconds(5), 2);
+
+        assertEquals(6, warmup.warmUp().warmed());
+        assertTrue(source.maxInFlight.get() <= 2);
+    }
+
+    @Test
+    void testSlowProductsAreAbandonedAtBudget() {
+        CountDownLatch never = new CountDownLatch(1);
+        FakeSource source = new FakeSource(name -> {
+            if (name.equals("slow")) {
+                try {
+                    never.await();
+                } catch (InterruptedException e) {
+                    return Try.failure(new ProductFetchException("Interrupted", e));
+                }
+            }
+            return Try.success(new Product(name, 1.0));
+        });
+        PricingWarmup warmup = new PricingWarmup(source, List.of("cornflakes", "slow"), Duration.ofMillis(100), 4);
+
+        PricingWarmup.Report report = warmup.warmUp();
+
+        assertEquals(1, report.warmed());
+        assertEquals(1, report.abandoned());
+        assertTrue(report.elapsed().toMillis() < 5_000);
+    }
+
+    @Test
+    void testReadProductNamesSkipsBlanksAndComments() throws IOException {
+        Path file = tempDir.resolve("warmup.txt");
+        Files.writeString(file, "# popular products\ncornflakes\n\n  weetabix  \n");
+
+        assertEquals(List.of("cornflakes", "weetabix"), PricingWarmup.readProductNames(file));
+    }
+
+    @Test
+    void testConstructorValidation() {
+        FakeSource source = new FakeSource(name -> Try.success(new Product(name, 1.0)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new PricingWarmup(null, List.of(), Duration.ofSeconds(1), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PricingWarmup(source, List.of(), Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PricingWarmup(source, List.of(), Duration.ofSeconds(1), 0));
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
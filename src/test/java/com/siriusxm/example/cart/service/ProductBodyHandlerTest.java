@@ -0,0 +1,76 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductBodyHandlerTest {
+
+    private static HttpResponse.ResponseInfo ok(String contentEncoding) {
+        return new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return 200;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return HttpHeaders.of(Map.of("Content-Encoding", List.of(contentEncoding)), (name, value) -> true);
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        };
+    }
+
+    /**
+     * Feeds {@code body} without completing it, so the response stream is only released if the reader closes it.
+     */
+    private static void assertBodyClosedOnFailure(String contentEncoding, byte[] body) throws Exception {
+        HttpResponse.BodySubscriber<Supplier<Product>> subscriber =
+                new ProductBodyHandler(new ContentDecoder()).apply(ok(contentEncoding));
+        CountDownLatch cancelled = new CountDownLatch(1);
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.countDown();
+            }
+        });
+        subscriber.onNext(List.of(ByteBuffer.wrap(body)));
+
+        Supplier<Product> product = subscriber.getBody().toCompletableFuture().get();
+
+        assertThrows(ProductFetchException.class, product::get);
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS), contentEncoding + " body left open");
+    }
+
+    @Test
+    void testBodyIsClosedWhenEncodingIsUnsupported() throws Exception {
+        assertBodyClosedOnFailure("br", "{\"title\":\"Corn Flakes\"".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testBodyIsClosedWhenGzipHeaderIsCorrupt() throws Exception {
+        assertBodyClosedOnFailure("gzip", "not gzip at all".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,125 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Product;
+import io.vavr.control.Try;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCatalogSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ProductCatalogSnapshot snapshotOf(Map<String, Product> products) throws IOException {
+        Path file = tempDir.resolve("catalog.bin");
+        ProductCatalogSnapshotBuilder.write(file, products);
+        return ProductCatalogSnapshot.open(file);
+    }
+
+    @Test
+    void testEveryProductCanBeLookedUp() throws IOException {
+        Map<String, Product> products = new TreeMap<>();
+        for (int i = 0; i < 500; i++) {
+            products.put("product" + i, new Product("Product " + i, i + 0.25));
+        }
+        ProductCatalogSnapshot snapshot = snapshotOf(products);
+
+        assertEquals(500, snapshot.size());
+        products.forEach((name, product) -> assertEquals(product, snapshot.fetchProduct(name).get()));
+    }
+
+    @Test
+    void testLookupIsCaseInsensitive() throws IOException {
+        ProductCatalogSnapshot snapshot = snapshotOf(Map.of("CornFlakes", new Product("Corn Flakes", 2.52)));
+
+        assertEquals(new Product("Corn Flakes", 2.52), snapshot.fetchProduct("CORNFLAKES").get());
+    }
+
+    @Test
+    void testMissingProductReturnsFailure() throws IOException {
+        ProductCatalogSnapshot snapshot = snapshotOf(Map.of("cornflakes", new Product("Corn Flakes", 2.52)));
+
+        assertInstanceOf(ProductFetchException.class, snapshot.fetchProduct("cornflake").getCause());
+        assertInstanceOf(ProductFetchException.class, snapshot.fetchProduct("cornflakess").getCause());
+        assertTrue(snapshot.fetchProduct(" ").isFailure());
+    }
+
+    @Test
+    void testEmptyCatalog() throws IOException {
+        ProductCatalogSnapshot snapshot = snapshotOf(Map.of());
+
+        assertEquals(0, snapshot.size());
+        assertTrue(snapshot.fetchProduct("cornflakes").isFailure());
+    }
+
+    @Test
+    void testFetchProductsKeepsOrder() throws IOException {
+        ProductCatalogSnapshot snapshot = snapshotOf(Map.of(
+                "cornflakes", new Product("Corn Flakes", 2.52),
+                "weetabix", new Product("Weetabix", 9.98)));
+
+        Map<String, Try<Product>> results = snapshot.fetchProducts(List.of("weetabix", "nonexistent", "cornflakes"));
+
+        assertEquals(List.of("weetabix", "nonexistent", "cornflakes"), List.copyOf(results.keySet()));
+        assertTrue(results.get("nonexistent").isFailure());
+        assertEquals(9.98, results.get("weetabix").get().price());
+    }
+
+    @Test
+    void testBuildsFromPricingDocuments() throws IOException {
+        Path document = tempDir.resolve("cornflakes.json");
+        Files.writeString(document, "{\"title\":\"Corn Flakes\",\"price\":2.52}");
+
+        ProductCatalogSnapshot snapshot = snapshotOf(ProductCatalogSnapshotBuilder.readDocuments(List.of(document)));
+
+        assertEquals(new Product("Corn Flakes", 2.52), snapshot.fetchProduct("cornflakes").get());
+    }
+
+    @Test
+    void testOpenRejectsOtherFiles() throws IOException {
+        Path file = tempDir.resolve("other.bin");
+        Files.writeString(file, "not a catalog at all");
+
+        assertThrows(IOException.class, () -> ProductCatalogSnapshot.open(file));
+    }
+
+    @Test
+    void testOpenRejectsTruncatedFile() throws IOException {
+        Path file = tempDir.resolve("catalog.bin");
+        ProductCatalogSnapshotBuilder.write(file, Map.of("cornflakes", new Product("Corn Flakes", 2.52)));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertThrows(IOException.class, () -> ProductCatalogSnapshot.open(file));
+    }
+
+    @Test
+    void testOpenRejectsSlotOutsideFile() throws IOException {
+        Path file = tempDir.resolve("catalog.bin");
+        ProductCatalogSnapshotBuilder.write(file, Map.of("cornflakes", new Product("Corn Flakes", 2.52)));
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(ProductCatalogSnapshot.HEADER_BYTES + 12, -1); // title length
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> ProductCatalogSnapshot.open(file));
+    }
+
+    @Test
+    void testRepeatLookupReusesTitle() throws IOException {
+        ProductCatalogSnapshot snapshot = snapshotOf(Map.of("cornflakes", new Product("Corn Flakes", 2.52)));
+
+        assertSame(snapshot.fetchProduct("cornflakes").get().name(), snapshot.fetchProduct("CornFlakes").get().name());
+    }
+}
@@ -0,0 +1,123 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.exception.ProductFetchException;
+import com.siriusxm.example.cart.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductJsonParserTest {
+
+    @Test
+    void testParsesTitleAndPrice() {
+        Product product = ProductJsonParser.parse(new StringReader("{\"title\":\"Corn Flakes\",\"price\":2.52}"));
+
+        assertEquals(new Product("Corn Flakes", 2.52), product);
+    }
+
+    @Test
+    void testSkipsUnrelatedFieldsInAnyOrder() {
+        String json = "{\"tags\":[\"cereal\",{\"nested\":[1,2,3]}],\"price\":9.98,"
+                + "\"description\":\"" + "x".repeat(10_000) + "\",\"title\":\"Weetabix\",\"stock\":null}";
+
+        Product product = ProductJsonParser.parse(new StringReader(json));
+
+        assertEquals(new Product("Weetabix", 9.98), product);
+    }
+
+    @Test
+    void testMissingFieldsFail() {
+        assertThrows(ProductFetchException.class,
+                () -> ProductJsonParser.parse(new StringReader("{\"price\":2.52}")));
+        assertThrows(ProductFetchException.class,
+                () -> ProductJsonParser.parse(new StringReader("{\"title\":\"Product\"}")));
+    }
+
+    @Test
+    void testInvalidJsonFails() {
+        assertThrows(ProductFetchException.class,
+                () -> ProductJsonParser.parse(new StringReader("invalid json")));
+        assertThrows(ProductFetchException.class,
+                () -> ProductJsonParser.parse(new StringReader("{\"title\":\"Cheerios\",\"price\":")));
+        assertThrows(ProductFetchException.class,
+                () -> ProductJsonParser.parse(new StringReader("{\"title\":null,\"price\":1.0}")));
+    }
+
+    @Test
+    void testEmptyBodyFails() {
+        ProductFetchException e = assertThrows(ProductFetchException.class,
+                () -> ProductJsonParser.parse(new StringReader("")));
+
+        assertTrue(e.getMessage().contains("empty response"));
+    }
+
+    @Test
+    void testBodyHandlerStreamsChunkedBody() {
+        byte[] json = "{\"title\":\"Frosties\",\"extra\":{\"a\":[true,false]},\"price\":4.99}"
+                .getBytes(StandardCharsets.UTF_8);
+        HttpResponse.BodySubscriber<Supplier<Product>> subscriber = ProductBodyHandler.INSTANCE.apply(responseInfo(200));
+
+        List<ByteBuffer> chunks = new ArrayList<>();
+        for (int offset = 0; offset < json.length; offset += 7) {
+            chunks.add(ByteBuffer.wrap(json, offset, Math.min(7, json.length - offset)));
+        }
+        subscriber.onSubscribe(new NoopSubscription());
+        subscriber.onNext(chunks);
+        subscriber.onComplete();
+
+        assertEquals(new Product("Frosties", 4.99), subscriber.getBody().toCompletableFuture().join().get());
+    }
+
+    @Test
+    void testBodyHandlerDiscardsNonOkBody() {
+        HttpResponse.BodySubscriber<Supplier<Product>> subscriber = ProductBodyHandler.INSTANCE.apply(responseInfo(404));
+
+        subscriber.onSubscribe(new NoopSubscription());
+        subscriber.onNext(List.of(ByteBuffer.wrap("404: Not Found".getBytes(StandardCharsets.UTF_8))));
+        subscriber.onComplete();
+
+        Supplier<Product> body = subscriber.getBody().toCompletableFuture().join();
+        assertThrows(ProductFetchException.class, body::get);
+    }
+
+    private static HttpResponse.ResponseInfo responseInfo(int status) {
+        return new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return status;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return HttpHeaders.of(Map.of(), (name, value) -> true);
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        };
+    }
+
+    private static final class NoopSubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.siriusxm.example.cart.service;
+
+import com.siriusxm.example.cart.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductPriceCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private ProductPriceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductPriceCache(Duration.ofMinutes(5), 100, nanos::get, Runnable::run);
+    }
+
+    @Test
+    void testPutThenGet() {
+        Product product = new Product("Corn Flakes", 2.52);
+        cache.put("cornflakes", product);
+
+        assertEquals(product, cache.get("cornflakes").get());
+        assertTrue(cache.get("weetabix").isEmpty());
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        cache.put("cornflakes", new Product("Corn Flakes", 2.52));
+
+        nanos.addAndGet(Duration.ofMinutes(4).toNanos());
+        assertTrue(cache.get("cornflakes").isDefined());
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertTrue(cache.get("cornflakes").isEmpty());
+    }
+
+    @Test
+    void testLastKnownGoodOutlivesEntry() {
+        ProductPriceCache withFallback = new ProductPriceCache(Duration.ofMinutes(5), 100, Duration.ZERO,
+                Duration.ZERO, Duration.ofHours(1), nanos::get, Runnable::run);
+        Product product = new Product("Corn Flakes", 2.52);
+        withFallback.put("cornflakes", product);
+
+        nanos.addAndGet(Duration.ofMinutes(30).toNanos());
+
+        assertTrue(withFallback.get("cornflakes").isEmpty());
+        assertEquals(product, withFallback.lastKnownGood("cornflakes").get());
+        assertTrue(cache.lastKnownGood("cornflakes").isEmpty());
+
+        withFallback.invalidate("cornflakes");
+        assertTrue(withFallback.lastKnownGood("cornflakes").isEmpty());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("product" + i, new Product("Product " + i, 1.00));
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.size() <= 100, "size was " + cache.size());
+        assertTrue(cache.stats().evictionCount() >= 900);
+    }
+
+    @Test
+    void testCountsHitsAndMisses() {
+        cache.put("cornflakes", new Product("Corn Flakes", 2.52));
+
+        cache.get("cornflakes");
+        cache.get("cornflakes");
+        cache.get("weetabix");
+
+        assertEquals(2, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void testConstructorValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new ProductPriceCache(Duration.ZERO, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ProductPriceCache(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ProductPriceCache(Duration.ofSeconds(1), 0));
+    }
+}
@@ -1,20 +1,39 @@
 package com.siriusxm.example.cart.service;
 
+import com.siriusxm.example.cart.exception.PricingOverloadException;
+import com.siriusxm.example.cart.exception.PricingStatusException;
 import com.siriusxm.example.cart.exception.ProductFetchException;
 import com.siriusxm.example.cart.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.vavr.control.Try;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +45,9 @@ class ProductPricingServiceUnitTest {
     @Mock
     private HttpResponse<String> mockResponse;
 
+    @TempDir
+    Path tempDir;
+
     private ProductPricingService service;
 
     @BeforeEach
@@ -248,4 +270,437 @@ class ProductPricingServiceUnitTest {
         assertThrows(IllegalArgumentException.class,
                 () -> new ProductPricingService(mockHttpClient, "   "));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFetchProductsReturnsResultPerName() throws Exception {
+        String jsonResponse = "{\"title\":\"Corn Flakes\",\"price\":2.52}";
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn(jsonResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+        Map<String, Try<Product>> results = service.fetchProducts(List.of("cornflakes", "weetabix", "cornflakes"));
+
+        assertEquals(List.of("cornflakes", "weetabix"), List.copyOf(results.keySet()));
+        assertTrue(results.values().stream().allMatch(Try::isSuccess));
+        verify(mockHttpClient, times(2)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verify(mockHttpClient, never()).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void testFetchProductsIsolatesFailures() {
+        String jsonResponse = "{\"title\":\"Weetabix\",\"price\":9.98}";
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn(jsonResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> {
+                    HttpRequest request = invocation.getArgument(0);
+                    return request.uri().getPath().contains("missing")
+                            ? CompletableFuture.failedFuture(new IOException("Connection reset"))
+                            : CompletableFuture.completedFuture(mockResponse);
+                });
+
+        Map<String, Try<Product>> results = service.fetchProducts(Arrays.asList("weetabix", "missing", "  "));
+
+        assertTrue(results.get("weetabix").isSuccess());
+        assertEquals(9.98, results.get("weetabix").get().price(), 0.01);
+        assertInstanceOf(IOException.class, results.get("missing").getCause());
+        assertInstanceOf(ProductFetchException.class, results.get("  ").getCause());
+    }
+
+    @Test
+    void testFetchProductsRespectsMaxInFlight() {
+        ProductPricingService limited = new ProductPricingService(mockHttpClient, "https://example.com/",
+                PricingOptions.builder().maxInFlight(2).build());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxObserved = new AtomicInteger();
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn("{\"title\":\"Frosties\",\"price\":4.99}");
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> {
+                    maxObserved.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(() -> {
+                        sleepQuietly(20);
+                        inFlight.decrementAndGet();
+                        return mockResponse;
+                    });
+                });
+
+        Map<String, Try<Product>> results = limited.fetchProducts(
+                List.of("cheerios", "cornflakes", "frosties", "shreddies", "weetabix"));
+
+        assertEquals(5, results.size());
+        assertTrue(results.values().stream().allMatch(Try::isSuccess));
+        assertTrue(maxObserved.get() <= 2, "max in flight was " + maxObserved.get());
+    }
+
+    @Test
+    void testMaxInFlightIsSharedAcrossConcurrentCalls() throws Exception {
+        ProductPricingService limited = new ProductPricingService(mockHttpClient, "https://example.com/",
+                PricingOptions.builder().maxInFlight(2).build());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxObserved = new AtomicInteger();
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn("{\"title\":\"Frosties\",\"price\":4.99}");
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> {
+                    maxObserved.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(() -> {
+                        sleepQuietly(20);
+                        inFlight.decrementAndGet();
+                        return mockResponse;
+                    });
+                });
+
+        CompletableFuture<Map<String, Try<Product>>> first = CompletableFuture.supplyAsync(
+                () -> limited.fetchProducts(List.of("cheerios", "cornflakes", "frosties")));
+        CompletableFuture<Map<String, Try<Product>>> second = CompletableFuture.supplyAsync(
+                () -> limited.fetchProducts(List.of("shreddies", "weetabix", "frosties")));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS).values().stream().allMatch(Try::isSuccess));
+        assertTrue(second.get(5, TimeUnit.SECONDS).values().stream().allMatch(Try::isSuccess));
+        assertTrue(maxObserved.get() <= 2, "max in flight was " + maxObserved.get());
+    }
+
+    @Test
+    void testFetchProductsFetchesNamesDifferingInCaseOnce() {
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn("{\"title\":\"Corn Flakes\",\"price\":2.52}");
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+        Map<String, Try<Product>> results = service.fetchProducts(List.of("Cornflakes", "cornflakes", "CORNFLAKES"));
+
+        assertEquals(List.of("Cornflakes", "cornflakes", "CORNFLAKES"), List.copyOf(results.keySet()));
+        assertTrue(results.values().stream().allMatch(result -> result.get().price() == 2.52));
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void testFetchProductsNullCollectionThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> service.fetchProducts(null));
+    }
+
+    @Test
+    void testMaxInFlightValidation() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PricingOptions.builder().maxInFlight(0).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProductPricingService(mockHttpClient, "https://example.com/", null));
+    }
+
+    private static HttpResponse.BodyHandler<Supplier<Product>> streamingHandler() {
+        return argThat(handler -> handler instanceof DeadlineBodyHandler<?> deadline
+                && deadline.delegate() instanceof CountingBodyHandler<?> counting
+                && counting.delegate() == ProductBodyHandler.INSTANCE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamingParseReadsProductFromBodyHandler() throws Exception {
+        ProductPricingService streaming = new ProductPricingService(mockHttpClient, "https://example.com/",
+                PricingOptions.builder().streamingParse(true).build());
+        HttpResponse<Supplier<Product>> streamedResponse = mock(HttpResponse.class);
+        when(streamedResponse.statusCode()).thenReturn(200);
+        when(streamedResponse.body()).thenReturn(() -> new Product("Corn Flakes", 2.52));
+        when(mockHttpClient.send(any(HttpRequest.class), streamingHandler()))
+                .thenReturn(streamedResponse);
+
+        Try<Product> result = streaming.fetchProduct("cornflakes");
+
+        assertTrue(result.isSuccess());
+        assertEquals(new Product("Corn Flakes", 2.52), result.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamingParseFailureReturnsFailure() throws Exception {
+        ProductPricingService streaming = new ProductPricingService(mockHttpClient, "https://example.com/",
+                PricingOptions.builder().streamingParse(true).build());
+        HttpResponse<Supplier<Product>> streamedResponse = mock(HttpResponse.class);
+        when(streamedResponse.statusCode()).thenReturn(200);
+        when(streamedResponse.body()).thenReturn(() -> {
+            throw new ProductFetchException("Failed to parse product JSON");
+        });
+        when(mockHttpClient.send(any(HttpRequest.class), streamingHandler()))
+                .thenReturn(streamedResponse);
+
+        Try<Product> result = streaming.fetchProduct("cornflakes");
+
+        assertTrue(result.isFailure());
+        assertInstanceOf(ProductFetchException.class, result.getCause());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAsyncStreamingParseRunsOnVirtualThread() {
+        ProductPricingService streaming = new ProductPricingService(mockHttpClient, "https://example.com/",
+                PricingOptions.builder().streamingParse(true).build());
+        AtomicReference<Thread> parsedOn = new AtomicReference<>();
+        HttpResponse<Supplier<Product>> streamedResponse = mock(HttpResponse.class);
+        when(streamedResponse.statusCode()).thenReturn(200);
+        when(streamedResponse.body()).thenReturn(() -> {
+            parsedOn.set(Thread.currentThread());
+            return new Product("Corn Flakes", 2.52);
+        });
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), streamingHandler()))
+                .thenReturn(CompletableFuture.completedFuture(streamedResponse));
+
+        Map<String, Try<Product>> results = streaming.fetchProducts(List.of("cornflakes"));
+
+        assertTrue(results.get("cornflakes").isSuccess());
+        assertTrue(parsedOn.get().isVirtual(), "parsed on " + parsedOn.get());
+    }
+
+    @Test
+    void testRequestOverConcurrencyLimitIsShed() throws Exception {
+        ProductPricingService limited = new ProductPricingService(mockHttpClient, "https://example.com/",
+                PricingOptions.builder()
+                        .limiting(new PricingOptions.Limiting(true, 1, 1, 1, 0.9, 2.0))
+                        .build());
+        AtomicReference<Try<Product>> nested = new AtomicReference<>();
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn("{\"title\":\"Corn Flakes\",\"price\":2.52}");
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> {
+                    // the only slot is held by this request
+                    nested.compareAndSet(null, limited.fetchProduct("weetabix"));
+                    return mockResponse;
+                });
+
+        Try<Product> result = limited.fetchProduct("cornflakes");
+
+        assertTrue(result.isSuccess());
+        assertTrue(nested.get().isFailure());
+        assertInstanceOf(PricingOverloadException.class, nested.get().getCause());
+        assertEquals(1, limited.getShedCount());
+        assertEquals(0, limited.getInFlightCount());
+    }
+
+    @Test
+    void testIOExceptionBacksOffConcurrencyLimit() throws Exception {
+        ProductPricingService limited = new ProductPricingService(mockHttpClient, "https://example.com/",
+                PricingOptions.builder()
+                        .limiting(new PricingOptions.Limiting(true, 10, 1, 20, 0.5, 2.0))
+                        .build());
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenThrow(new IOException("Connection reset"));
+
+        limited.fetchProduct("cornflakes");
+
+        assertEquals(5, limited.getConcurrencyLimit());
+    }
+
+    private ProductPricingService retryingService(int maxAttempts) {
+        return new ProductPricingService(mockHttpClient, "https://example.com/",
+                PricingOptions.builder()
+                        .requestTimeout(Duration.ofSeconds(2))
+                        .retrying(new PricingOptions.Retrying(
+                                maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5), 0.1))
+                        .build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<String> serverError(int status) {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        return response;
+    }
+
+    @Test
+    void testRequestCarriesTimeout() throws Exception {
+        ProductPricingService retrying = retryingService(1);
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn("{\"title\":\"Corn Flakes\",\"price\":2.52}");
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(mockResponse);
+
+        retrying.fetchProduct("cornflakes");
+
+        verify(mockHttpClient).send(
+                argThat(request -> request.timeout().equals(Optional.of(Duration.ofSeconds(2)))),
+                any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void testCompressionAdvertisesAcceptedEncodings() throws Exception {
+        ProductPricingService compressing = new ProductPricingService(mockHttpClient, "https://example.com/",
+                PricingOptions.builder().compression(true).build());
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn("{\"title\":\"Corn Flakes\",\"price\":2.52}");
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(mockResponse);
+
+        compressing.fetchProduct("cornflakes");
+        service.fetchProduct("cornflakes");
+
+        verify(mockHttpClient).send(
+                argThat(request -> request.headers().firstValue("Accept-Encoding").equals(Optional.of("gzip, deflate"))),
+                any(HttpResponse.BodyHandler.class));
+        verify(mockHttpClient).send(
+                argThat(request -> request.headers().firstValue("Accept-Encoding").isEmpty()),
+                any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFetchesAreRecordedByOutcomeStatusAndException() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProductPricingService metered = new ProductPricingService(mockHttpClient, "https://example.com/",
+                PricingOptions.defaults(), DiskPriceStore.disabled(), registry);
+        HttpResponse<String> notFound = serverError(404);
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn("{\"title\":\"Corn Flakes\",\"price\":2.52}");
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(mockResponse, notFound)
+                .thenThrow(new IOException("Connection reset"));
+
+        metered.fetchProduct("cornflakes");
+        metered.fetchProduct("nonexistent");
+        metered.fetchProduct("weetabix");
+
+        assertEquals(1, registry.get("cart.pricing.fetch").tag("outcome", "success").timer().count());
+        assertEquals(2, registry.get("cart.pricing.fetch").tag("outcome", "failure").timer().count());
+        assertTrue(registry.get("cart.pricing.fetch").tag("outcome", "success").timer()
+                .totalTime(TimeUnit.NANOSECONDS) > 0);
+        assertEquals(1, registry.get("cart.pricing.responses").tag("status", "200").counter().count());
+        assertEquals(1, registry.get("cart.pricing.responses").tag("status", "404").counter().count());
+        assertEquals(1, registry.get("cart.pricing.fetch.errors")
+                .tag("exception", "PricingStatusException").counter().count());
+        assertEquals(1, registry.get("cart.pricing.fetch.errors")
+                .tag("exception", "IOException").counter().count());
+    }
+
+    @Test
+    void testServerErrorIsRetried() throws Exception {
+        ProductPricingService retrying = retryingService(3);
+        HttpResponse<String> unavailable = serverError(503);
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn("{\"title\":\"Corn Flakes\",\"price\":2.52}");
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(unavailable, mockResponse);
+
+        Try<Product> result = retrying.fetchProduct("cornflakes");
+
+        assertTrue(result.isSuccess());
+        verify(mockHttpClient, times(2)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        assertEquals(1, retrying.getRetryCount());
+    }
+
+    @Test
+    void testClientErrorIsNotRetried() throws Exception {
+        ProductPricingService retrying = retryingService(3);
+        when(mockResponse.statusCode()).thenReturn(404);
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(mockResponse);
+
+        Try<Product> result = retrying.fetchProduct("nonexistent");
+
+        assertTrue(result.isFailure());
+        assertInstanceOf(PricingStatusException.class, result.getCause());
+        assertEquals(404, ((PricingStatusException) result.getCause()).getStatusCode());
+        verify(mockHttpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void testTimeoutIsRetriedUpToMaxAttempts() throws Exception {
+        ProductPricingService retrying = retryingService(3);
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenThrow(new HttpTimeoutException("request timed out"));
+
+        Try<Product> result = retrying.fetchProduct("cornflakes");
+
+        assertTrue(result.isFailure());
+        assertInstanceOf(HttpTimeoutException.class, result.getCause());
+        verify(mockHttpClient, times(3)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void testUndecodableBodyIsNotRetried() throws Exception {
+        ProductPricingService retrying = retryingService(3);
+        // how HttpClient.send reports a body handler that failed to decode the body
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenThrow(new IOException("Failed to decode gzip response body",
+                        new ProductFetchException("Failed to decode gzip response body")));
+
+        Try<Product> result = retrying.fetchProduct("cornflakes");
+
+        assertInstanceOf(ProductFetchException.class, result.getCause());
+        assertEquals(0, retrying.getRetryCount());
+        verify(mockHttpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void testRetriesAreBoundedByBudget() throws Exception {
+        ProductPricingService retrying = retryingService(2);
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenThrow(new HttpTimeoutException("request timed out"));
+
+        for (int i = 0; i < 20; i++) {
+            retrying.fetchProduct("cornflakes");
+        }
+
+        // a full budget of 10, then 0.1 earned per request once retries have drawn it below the cap
+        assertEquals(11, retrying.getRetryCount());
+    }
+
+    @Test
+    void testAsyncServerErrorIsRetried() {
+        ProductPricingService retrying = retryingService(3);
+        HttpResponse<String> failed = serverError(500);
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn("{\"title\":\"Corn Flakes\",\"price\":2.52}");
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(failed), CompletableFuture.completedFuture(mockResponse));
+
+        Map<String, Try<Product>> results = retrying.fetchProducts(List.of("cornflakes"));
+
+        assertTrue(results.get("cornflakes").isSuccess());
+        assertEquals(1, retrying.getRetryCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStoredValidatorsAreSentAndNotModifiedServesStoredProduct() throws Exception {
+        try (DiskPriceStore diskStore = DiskPriceStore.open(tempDir)) {
+            ProductPricingService revalidating = new ProductPricingService(mockHttpClient, "https://example.com/",
+                    PricingOptions.defaults(), diskStore);
+            when(mockResponse.statusCode()).thenReturn(200);
+            when(mockResponse.body()).thenReturn("{\"title\":\"Corn Flakes\",\"price\":2.52}");
+            when(mockResponse.headers()).thenReturn(
+                    HttpHeaders.of(Map.of("ETag", List.of("\"v1\"")), (name, value) -> true));
+            HttpResponse<String> notModified = serverError(304);
+            when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                    .thenReturn(mockResponse, notModified);
+
+            revalidating.fetchProduct("cornflakes");
+            Try<Product> result = revalidating.fetchProduct("cornflakes");
+
+            assertEquals(new Product("Corn Flakes", 2.52), result.get());
+            assertEquals(1, revalidating.getNotModifiedCount());
+            verify(mockHttpClient).send(
+                    argThat(request -> request.headers().firstValue("If-None-Match").equals(Optional.of("\"v1\""))),
+                    any(HttpResponse.BodyHandler.class));
+        }
+    }
+
+    @Test
+    void testNotModifiedWithoutStoredProductReturnsFailure() throws Exception {
+        when(mockResponse.statusCode()).thenReturn(304);
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(mockResponse);
+
+        Try<Product> result = service.fetchProduct("cornflakes");
+
+        assertTrue(result.isFailure());
+        assertInstanceOf(PricingStatusException.class, result.getCause());
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
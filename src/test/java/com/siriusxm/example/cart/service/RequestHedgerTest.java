@@ -0,0 +1,176 @@
+package com.siriusxm.example.cart.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestHedgerTest {
+
+    private static final PricingOptions.Hedging HEDGING =
+            new PricingOptions.Hedging(95, Duration.ofMillis(10), 0.5);
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Hands out the queued futures in order, then completed ones.
+     */
+    private static final class Attempts implements Supplier<CompletableFuture<String>> {
+
+        private final List<CompletableFuture<String>> queued = new ArrayList<>();
+        private int calls;
+
+        CompletableFuture<String> queue() {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            queued.add(future);
+            return future;
+        }
+
+        @Override
+        public synchronized CompletableFuture<String> get() {
+            return calls < queued.size() ? queued.get(calls++) : CompletableFuture.completedFuture("fast");
+        }
+    }
+
+    private static void warmUp(RequestHedger hedger) {
+        for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+            hedger.execute(() -> CompletableFuture.completedFuture("warm"), value -> true).join();
+        }
+    }
+
+    private static void awaitFired(RequestHedger hedger, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hedger.firedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static boolean awaitCancelled(CompletableFuture<?> future) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!future.isCancelled() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return future.isCancelled();
+    }
+
+    @Test
+    void testDisabledHedgingPassesThroughTheOnlyAttempt() {
+        RequestHedger hedger = new RequestHedger(PricingOptions.Hedging.DISABLED, EXECUTOR);
+        CompletableFuture<String> only = new CompletableFuture<>();
+
+        assertSame(only, hedger.execute(() -> only, value -> true));
+        assertEquals(-1, hedger.delayNanos());
+    }
+
+    @Test
+    void testNothingIsHedgedBeforeEnoughSamples() {
+        RequestHedger hedger = new RequestHedger(HEDGING, EXECUTOR);
+        CompletableFuture<String> slow = new CompletableFuture<>();
+
+        assertSame(slow, hedger.execute(() -> slow, value -> true));
+        assertEquals(-1, hedger.delayNanos());
+        assertEquals(0, hedger.firedCount());
+    }
+
+    @Test
+    void testDelayIsFlooredAtMinimum() {
+        RequestHedger hedger = new RequestHedger(HEDGING, EXECUTOR);
+        warmUp(hedger);
+
+        assertEquals(Duration.ofMillis(10).toNanos(), hedger.delayNanos());
+    }
+
+    @Test
+    void testSlowRequestIsHedgedAndHedgeWins() throws Exception {
+        RequestHedger hedger = new RequestHedger(HEDGING, EXECUTOR);
+        warmUp(hedger);
+        Attempts attempts = new Attempts();
+        CompletableFuture<String> slow = attempts.queue();
+
+        String result = hedger.execute(attempts, value -> true).get(5, TimeUnit.SECONDS);
+
+        assertEquals("fast", result);
+        assertEquals(1, hedger.firedCount());
+        assertEquals(1, hedger.wonCount());
+        assertTrue(awaitCancelled(slow), "losing primary should be cancelled");
+    }
+
+    @Test
+    void testHedgeIsSentFromGivenExecutor() throws Exception {
+        RequestHedger hedger = new RequestHedger(HEDGING, EXECUTOR);
+        warmUp(hedger);
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        AtomicReference<Thread> hedgeThread = new AtomicReference<>();
+        Supplier<CompletableFuture<String>> attempts = () -> {
+            if (hedgeThread.compareAndSet(null, Thread.currentThread())) {
+                return slow; // the primary, sent from this thread
+            }
+            hedgeThread.set(Thread.currentThread());
+            return CompletableFuture.completedFuture("fast");
+        };
+
+        assertEquals("fast", hedger.execute(attempts, value -> true).get(5, TimeUnit.SECONDS));
+        assertTrue(hedgeThread.get().isVirtual());
+    }
+
+    @Test
+    void testPrimaryFinishingFirstCancelsHedge() throws Exception {
+        RequestHedger hedger = new RequestHedger(HEDGING, EXECUTOR);
+        warmUp(hedger);
+        Attempts attempts = new Attempts();
+        CompletableFuture<String> primary = attempts.queue();
+        CompletableFuture<String> hedge = attempts.queue();
+
+        CompletableFuture<String> result = hedger.execute(attempts, value -> true);
+        awaitFired(hedger, 1);
+        primary.complete("primary");
+
+        assertEquals("primary", result.get(5, TimeUnit.SECONDS));
+        assertTrue(hedge.isCancelled());
+        assertEquals(0, hedger.wonCount());
+    }
+
+    @Test
+    void testFailedPrimaryWaitsForHedge() throws Exception {
+        RequestHedger hedger = new RequestHedger(HEDGING, EXECUTOR);
+        warmUp(hedger);
+        Attempts attempts = new Attempts();
+        CompletableFuture<String> primary = attempts.queue();
+        CompletableFuture<String> hedge = attempts.queue();
+
+        CompletableFuture<String> result = hedger.execute(attempts, value -> !value.equals("failed"));
+        awaitFired(hedger, 1);
+        primary.complete("failed");
+        assertFalse(result.isDone());
+        hedge.complete("hedge");
+
+        assertEquals("hedge", result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, hedger.wonCount());
+    }
+
+    @Test
+    void testHedgeRateIsCapped() throws Exception {
+        RequestHedger hedger = new RequestHedger(new PricingOptions.Hedging(95, Duration.ofMillis(10), 0.02), EXECUTOR);
+        warmUp(hedger); // earns 0.64 of a hedge
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Attempts attempts = new Attempts();
+            attempts.queue();
+            attempts.queue();
+            results.add(hedger.execute(attempts, value -> true));
+        }
+        Thread.sleep(200); // well past the 10ms hedge delay
+
+        assertEquals(1, hedger.firedCount());
+        results.forEach(result -> assertFalse(result.isDone()));
+    }
+}
@@ -0,0 +1,146 @@
+package com.siriusxm.example.cart.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>(interrupted -> "interrupted");
+
+    @Test
+    void testConcurrentCallersShareOneExecution() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> flights.execute("cornflakes", () -> {
+                    calls.incrementAndGet();
+                    awaitQuietly(release);
+                    return "Corn Flakes";
+                })));
+            }
+            waitForFollowers();
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("Corn Flakes", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, flights.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureIsSharedWithWaitersAndNotRetried() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> flights.execute("missing", () -> {
+                    calls.incrementAndGet();
+                    awaitQuietly(release);
+                    throw new IllegalStateException("boom");
+                })));
+            }
+            waitForFollowers();
+            release.countDown();
+
+            for (Future<String> result : results) {
+                Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCancelledFollowerStopsWaiting() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch followerReturned = new CountDownLatch(1);
+        AtomicReference<String> followerResult = new AtomicReference<>();
+        AtomicBoolean followerInterrupted = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> flights.execute("cornflakes", () -> {
+                awaitQuietly(release);
+                return "Corn Flakes";
+            }));
+            waitForFollowers();
+            Future<?> follower = executor.submit(() -> {
+                followerResult.set(flights.execute("cornflakes", () -> "not the leader"));
+                followerInterrupted.set(Thread.currentThread().isInterrupted());
+                followerReturned.countDown();
+            });
+            waitForFollowers();
+
+            follower.cancel(true);
+
+            assertTrue(followerReturned.await(5, TimeUnit.SECONDS), "cancelled follower kept waiting");
+            assertEquals("interrupted", followerResult.get());
+            assertTrue(followerInterrupted.get());
+            release.countDown();
+            assertEquals("Corn Flakes", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testKeyIsReleasedAfterCompletion() {
+        AtomicInteger calls = new AtomicInteger();
+
+        flights.execute("weetabix", () -> "v" + calls.incrementAndGet());
+        String second = flights.execute("weetabix", () -> "v" + calls.incrementAndGet());
+
+        assertEquals("v2", second);
+        assertEquals(0, flights.inFlightCount());
+    }
+
+    @Test
+    void testDifferentKeysDoNotCoalesce() {
+        SingleFlight.Flight<String> first = flights.join("cheerios");
+        SingleFlight.Flight<String> second = flights.join("frosties");
+        SingleFlight.Flight<String> follower = flights.join("cheerios");
+
+        assertTrue(first.leader());
+        assertTrue(second.leader());
+        assertFalse(follower.leader());
+
+        flights.complete("cheerios", first, "Cheerios");
+        assertEquals("Cheerios", follower.result().join());
+    }
+
+    private void waitForFollowers() throws InterruptedException {
+        // give the other threads time to join the leader's flight
+        Thread.sleep(100);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}